@@ -2,8 +2,10 @@ package com.tchatbot.t_chatbot_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TChatbotBackendApplication {
 
 	public static void main(String[] args) {
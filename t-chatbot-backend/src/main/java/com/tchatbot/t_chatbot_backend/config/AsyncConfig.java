@@ -0,0 +1,43 @@
+package com.tchatbot.t_chatbot_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Gemini 호출처럼 대부분의 시간을 네트워크 대기로 보내는 작업용 (가상 스레드)
+    @Bean(name = "llmExecutor", destroyMethod = "shutdown")
+    public ExecutorService llmExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("llm-", 0).factory());
+    }
+
+    // SSE 전송용 (느린 클라이언트에 쓰는 동안 생성 스레드를 막지 않도록 구독자별로 따로 전송, 가상 스레드)
+    @Bean(name = "sseExecutor", destroyMethod = "shutdown")
+    public ExecutorService sseExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-", 0).factory());
+    }
+
+    // DB 저장 작업용 (커넥션 풀을 넘지 않도록 크기 제한)
+    // 큐가 가득 차면 호출한 스레드(Tomcat 요청 스레드일 수 있음)에서 실행하지 않고 바로 거절합니다.
+    // 거절(RejectedExecutionException)은 컨트롤러에서 503 + Retry-After로 응답합니다.
+    @Bean(name = "persistenceExecutor")
+    public ThreadPoolTaskExecutor persistenceExecutor(
+            @Value("${chat.persistence.pool-size:8}") int poolSize,
+            @Value("${chat.persistence.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("chat-persist-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tchatbot.t_chatbot_backend.config;
+
+import com.google.genai.Client;
+import com.tchatbot.t_chatbot_backend.llm.GeminiClientPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class GeminiConfig {
+
+    // gemini.api.keys(쉼표로 구분)에 등록한 키마다 클라이언트를 하나씩 만듭니다.
+    // 비어 있으면 환경 변수(GOOGLE_API_KEY)에서 API 키를 자동으로 읽는 클라이언트 하나를 사용합니다.
+    // fake-llm 프로필에서는 API 키 없이 실행할 수 있도록 만들지 않습니다.
+    @Bean
+    @Profile("!fake-llm")
+    public GeminiClientPool geminiClientPool(
+            @Value("${gemini.api.keys:}") String apiKeys,
+            @Value("${gemini.pool.requests-per-minute:0}") int requestsPerMinute,
+            @Value("${gemini.pool.eject-ms:30000}") long ejectMillis,
+            @Value("${gemini.pool.max-eject-ms:300000}") long maxEjectMillis,
+            @Value("${gemini.pool.failure-threshold:3}") int failureThreshold,
+            MeterRegistry meterRegistry) {
+        List<Client> clients = new ArrayList<>();
+        for (String apiKey : apiKeys.split(",")) {
+            if (!apiKey.isBlank()) {
+                clients.add(Client.builder().apiKey(apiKey.strip()).build());
+            }
+        }
+        if (clients.isEmpty()) {
+            clients.add(new Client());
+        }
+        System.out.println("Gemini API 키 " + clients.size() + "개 사용");
+        return new GeminiClientPool(clients, requestsPerMinute, ejectMillis, maxEjectMillis, failureThreshold, meterRegistry);
+    }
+}
@@ -1,7 +1,7 @@
 package com.tchatbot.t_chatbot_backend.controller;
 
-import com.tchatbot.t_chatbot_backend.dto.AuthResponse;
 import com.tchatbot.t_chatbot_backend.dto.LoginRequest;
+import com.tchatbot.t_chatbot_backend.dto.SessionUser;
 import com.tchatbot.t_chatbot_backend.dto.SignUpRequest;
 import com.tchatbot.t_chatbot_backend.service.AuthService;
 import jakarta.servlet.http.HttpSession;
@@ -27,13 +27,10 @@ public class AuthController {
     @PostMapping("/signup")
     public ResponseEntity<?> signUp(@RequestBody SignUpRequest request, HttpSession session) {
         try {
-            AuthResponse response = authService.signUp(request);
+            SessionUser user = authService.signUp(request);
+            storeUser(session, user);
             
-            // 세션에 사용자 정보 저장
-            session.setAttribute("email", response.getEmail());
-            session.setAttribute("username", response.getUsername());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(user.toAuthResponse());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -44,13 +41,10 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpSession session) {
         try {
-            AuthResponse response = authService.login(request);
-            
-            // 세션에 사용자 정보 저장
-            session.setAttribute("email", response.getEmail());
-            session.setAttribute("username", response.getUsername());
+            SessionUser user = authService.login(request);
+            storeUser(session, user);
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(user.toAuthResponse());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -68,14 +62,18 @@ public class AuthController {
     
     @GetMapping("/check")
     public ResponseEntity<?> checkSession(HttpSession session) {
-        String email = (String) session.getAttribute("email");
-        String username = (String) session.getAttribute("username");
-        
-        if (email != null && username != null) {
-            AuthResponse response = new AuthResponse(null, username, email);
-            return ResponseEntity.ok(response);
+        SessionUser user = authService.currentUser(session);
+        if (user != null) {
+            return ResponseEntity.ok(user.toAuthResponse());
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
     }
+    
+    // 세션에 사용자 정보 저장 (email/username 속성은 기존 컨트롤러와의 호환용)
+    private void storeUser(HttpSession session, SessionUser user) {
+        session.setAttribute(SessionUser.ATTRIBUTE, user);
+        session.setAttribute("email", user.getEmail());
+        session.setAttribute("username", user.getUsername());
+    }
 }
@@ -1,19 +1,63 @@
 package com.tchatbot.t_chatbot_backend.controller;
 
+import com.tchatbot.t_chatbot_backend.dto.BatchChatRequest;
+import com.tchatbot.t_chatbot_backend.dto.BatchChatResult;
 import com.tchatbot.t_chatbot_backend.dto.ChatMessage;
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.dto.ChatTurn;
+import com.tchatbot.t_chatbot_backend.dto.CompareChatResult;
+import com.tchatbot.t_chatbot_backend.dto.ConversationWindow;
+import com.tchatbot.t_chatbot_backend.dto.SessionUser;
+import com.tchatbot.t_chatbot_backend.entity.ChatSession;
+import com.tchatbot.t_chatbot_backend.idempotency.IdempotencyKeyReuseException;
+import com.tchatbot.t_chatbot_backend.idempotency.IdempotencyStore;
+import com.tchatbot.t_chatbot_backend.llm.LlmOverloadedException;
+import com.tchatbot.t_chatbot_backend.llm.PromptTemplates;
+import com.tchatbot.t_chatbot_backend.persistence.ChatTurnWriteBehind;
+import com.tchatbot.t_chatbot_backend.ratelimit.ChatRateLimiter;
+import com.tchatbot.t_chatbot_backend.ratelimit.RateLimitDecision;
+import com.tchatbot.t_chatbot_backend.safety.CrisisResponder;
+import com.tchatbot.t_chatbot_backend.service.AuthService;
 import com.tchatbot.t_chatbot_backend.service.ChatService;
 import com.tchatbot.t_chatbot_backend.service.ChatSessionService;
+import com.tchatbot.t_chatbot_backend.service.ConversationWindowService;
+import com.tchatbot.t_chatbot_backend.service.UsageService;
+import com.tchatbot.t_chatbot_backend.streaming.TurnStream;
+import com.tchatbot.t_chatbot_backend.streaming.TurnStreamRegistry;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 @RestController
 @RequestMapping("/api")
@@ -21,75 +65,726 @@ public class ChatController {
 
     private final ChatService chatService;
     private final ChatSessionService chatSessionService;
+    private final ConversationWindowService conversationWindowService;
+    private final ChatRateLimiter chatRateLimiter;
+    private final UsageService usageService;
+    private final ChatTurnWriteBehind turnWriteBehind;
+    private final IdempotencyStore idempotencyStore;
+    private final CrisisResponder crisisResponder;
+    private final TurnStreamRegistry turnStreams;
+    private final AuthService authService;
+    private final ExecutorService llmExecutor;
+    private final Executor persistenceExecutor;
+
+    @Value("${chat.stream.timeout-ms:120000}")
+    private long streamTimeoutMs;
+
+    @Value("${chat.batch.max-items:100}")
+    private int batchMaxItems;
+
+    @Value("${chat.batch.parallelism:8}")
+    private int batchParallelism;
+
+    @Value("${chat.persistence.retry-after-seconds:1}")
+    private long persistenceRetryAfterSeconds;
 
     // 생성자를 통해 서비스들을 주입받습니다.
     @Autowired
-    public ChatController(ChatService chatService, ChatSessionService chatSessionService) {
+    public ChatController(ChatService chatService, ChatSessionService chatSessionService,
+                          ConversationWindowService conversationWindowService,
+                          ChatRateLimiter chatRateLimiter,
+                          UsageService usageService,
+                          ChatTurnWriteBehind turnWriteBehind,
+                          IdempotencyStore idempotencyStore,
+                          CrisisResponder crisisResponder,
+                          TurnStreamRegistry turnStreams,
+                          AuthService authService,
+                          @Qualifier("llmExecutor") ExecutorService llmExecutor,
+                          @Qualifier("persistenceExecutor") Executor persistenceExecutor) {
         this.chatService = chatService;
         this.chatSessionService = chatSessionService;
+        this.conversationWindowService = conversationWindowService;
+        this.chatRateLimiter = chatRateLimiter;
+        this.usageService = usageService;
+        this.turnWriteBehind = turnWriteBehind;
+        this.idempotencyStore = idempotencyStore;
+        this.crisisResponder = crisisResponder;
+        this.turnStreams = turnStreams;
+        this.authService = authService;
+        this.llmExecutor = llmExecutor;
+        this.persistenceExecutor = persistenceExecutor;
     }
 
+    // Gemini 호출은 가상 스레드, DB 저장은 별도 풀에서 처리하고 요청 스레드는 즉시 반환합니다.
+    // Idempotency-Key 헤더가 있으면 같은 키의 재시도는 새로 처리하지 않고 원래 요청의 응답을 돌려줍니다.
     @PostMapping("/chat")
-    public ResponseEntity<?> handleChatMessage(@RequestBody ChatMessage userMessage, HttpSession session) {
+    public CompletableFuture<ResponseEntity<?>> handleChatMessage(@RequestBody ChatMessage userMessage, HttpSession session,
+                                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         System.out.println("채팅 요청 수신: " + userMessage.getMessage());
         System.out.println("선택된 모드: " + userMessage.getMode());
         System.out.println("세션 ID: " + userMessage.getSessionId());
         
         // 세션에서 사용자 정보 확인
-        String email = (String) session.getAttribute("email");
-        String username = (String) session.getAttribute("username");
-        
-        System.out.println("세션 확인 - email: " + email + ", username: " + username);
+        SessionUser user = authService.currentUser(session);
         
-        if (email == null || username == null) {
+        if (user == null) {
             // 인증되지 않은 사용자
             System.err.println("인증되지 않은 사용자");
             Map<String, String> error = new HashMap<>();
             error.put("message", "로그인이 필요합니다.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error));
+        }
+        if (userMessage.getMessage() == null || userMessage.getMessage().isBlank()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "메시지가 비어 있습니다.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+        }
+        
+        String mode = userMessage.getMode() != null ? userMessage.getMode() : "default";
+        
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return processChat(userMessage, user, mode);
+        }
+        if (idempotencyKey.length() > 255) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Idempotency-Key는 255자 이하여야 합니다.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
         }
         
+        // 재시도는 요청 한도를 다시 차감하지 않도록 한도 확인보다 먼저 조회
+        String fingerprint = mode + '\u0001' + userMessage.getSessionId() + '\u0001' + userMessage.getMessage();
         try {
-            // ChatService를 사용하여 AI의 응답을 받아옵니다.
-            System.out.println("ChatService 호출 시작...");
-            String mode = userMessage.getMode() != null ? userMessage.getMode() : "default";
-            
-            // 대화 히스토리를 포함하여 응답 생성
-            String botResponse = chatService.getTChatResponse(
+            return idempotencyStore.execute(user.getEmail(), idempotencyKey, fingerprint,
+                () -> processChat(userMessage, user, mode));
+        } catch (IdempotencyKeyReuseException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity().body(error));
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<?>> processChat(ChatMessage userMessage, SessionUser user, String mode) {
+        // 위기 표현에 대한 안내는 AI를 호출하지 않으므로 토큰 한도와 무관하게 응답
+        if (!crisisResponder.matches(userMessage.getMessage())) {
+            // 오늘 토큰 사용 한도 확인 (모델 호출 전)
+            UsageService.QuotaCheck quota = usageService.checkQuota(user.getId(), mode);
+            if (!quota.allowed()) {
+                return CompletableFuture.completedFuture(quotaExceeded(quota));
+            }
+        }
+        
+        // 사용자별 요청 한도 확인 (위기 표현으로 한도를 우회해 요청을 반복하지 못하도록 항상 확인)
+        HttpHeaders limitHeaders = new HttpHeaders();
+        RateLimitDecision rateLimit = checkRateLimit(user.getEmail(), mode, 1, limitHeaders);
+        if (!rateLimit.allowed()) {
+            return CompletableFuture.completedFuture(tooManyRequests(rateLimit, limitHeaders));
+        }
+        
+        // ChatService를 사용하여 AI의 응답을 받아옵니다.
+        System.out.println("ChatService 호출 시작...");
+        
+        // 대화 히스토리를 포함하여 응답 생성
+        return loadConversationHistory(userMessage, user.getId())
+            .thenCompose(history -> chatService.getTChatResponseAsync(
+                user.getEmail(),
                 userMessage.getMessage(), 
                 mode, 
-                userMessage.getConversationHistory()
-            );
-            
-            System.out.println("ChatService 응답 성공");
+                history
+            ))
+            .<ResponseEntity<?>>thenApplyAsync(reply -> {
+                if (reply.isFailed()) {
+                    // 실패 안내는 저장하지 않고 5xx로 응답 (Idempotency-Key 재시도가 실패를 재사용하지 않고 새로 처리됨)
+                    Map<String, String> error = new HashMap<>();
+                    error.put("message", reply.getMessage());
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(error);
+                }
+                System.out.println("ChatService 응답 성공");
+                usageService.record(user.getId(), mode, reply);
+                
+                // DB에 저장
+                Long sessionId = saveTurn(userMessage.getSessionId(), user, mode, userMessage.getMessage(), reply);
+                
+                // 응답에 세션 ID 포함
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", reply.getMessage());
+                response.put("sessionId", sessionId);
+                
+                return ResponseEntity.ok(response);
+            }, persistenceExecutor)
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                if (cause instanceof LlmOverloadedException overloaded) {
+                    // 과부하: 빠르게 거절하고 재시도 시점을 알려줌
+                    System.out.println("Gemini 호출 과부하로 요청 거절");
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("message", overloaded.getMessage());
+                    error.put("retryAfterSeconds", overloaded.getRetryAfterSeconds());
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(overloaded.getRetryAfterSeconds()))
+                        .body(error);
+                }
+                if (cause instanceof RejectedExecutionException) {
+                    return persistenceBusy();
+                }
+                System.err.println("ChatController에서 예외 발생: " + e.getMessage());
+                e.printStackTrace();
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "서버 내부 오류가 발생했습니다.");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            })
+            .thenApply(response -> withHeaders(response, limitHeaders));
+    }
+
+    // 스트리밍 채팅: 토큰이 생성되는 즉시 SSE로 전달하고, 완료 후에 한 번만 저장합니다.
+    // 생성은 연결과 별개로 끝까지 진행되며, 첫 turn 이벤트의 turnId로 끊긴 뒤에도 이어받을 수 있습니다.
+    @PostMapping("/chat/stream")
+    public ResponseEntity<SseEmitter> streamChatMessage(@RequestBody ChatMessage userMessage, HttpSession session) {
+        SessionUser user = authService.currentUser(session);
+
+        if (user == null) {
+            // SSE 응답에는 JSON 본문을 쓸 수 없으므로 상태 코드만 반환
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (userMessage.getMessage() == null || userMessage.getMessage().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String mode = userMessage.getMode() != null ? userMessage.getMode() : "default";
+        if (!crisisResponder.matches(userMessage.getMessage())) {
+            UsageService.QuotaCheck quota = usageService.checkQuota(user.getId(), mode);
+            if (!quota.allowed()) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(quotaExceeded(quota).getHeaders()).build();
+            }
+        }
+        HttpHeaders limitHeaders = new HttpHeaders();
+        if (!checkRateLimit(user.getEmail(), mode, 1, limitHeaders).allowed()) {
+            // 재시도 시점은 Retry-After 헤더로 전달
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(limitHeaders).build();
+        }
+        
+        TurnStream turn = turnStreams.start(user.getEmail());
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        sendEvent(emitter, "turn", Map.of("turnId", turn.getTurnId()));
+        subscribe(turn, emitter, 0);
+
+        llmExecutor.execute(() -> {
+            try {
+                ConversationWindow history = loadConversationHistory(userMessage, user.getId()).join();
+                ChatReply reply = chatService.streamTChatResponse(
+                    user.getEmail(),
+                    userMessage.getMessage(),
+                    mode,
+                    history,
+                    turn::append
+                );
+                usageService.record(user.getId(), mode, reply);
+
+                Long sessionId = CompletableFuture
+                    .supplyAsync(() -> saveTurn(userMessage.getSessionId(), user, mode, userMessage.getMessage(), reply),
+                        persistenceExecutor)
+                    .join();
+
+                turn.complete(Map.of("sessionId", sessionId));
+            } catch (LlmOverloadedException e) {
+                // 스트림은 이미 200으로 시작했으므로 error 이벤트로 재시도 시점을 전달
+                System.out.println("Gemini 호출 과부하로 스트리밍 요청 거절");
+                turn.fail(Map.of("message", e.getMessage(), "retryAfterSeconds", e.getRetryAfterSeconds()));
+            } catch (Exception e) {
+                if (unwrap(e) instanceof RejectedExecutionException) {
+                    System.out.println("DB 작업 대기열이 가득 차 스트리밍 요청 거절");
+                    turn.fail(persistenceBusyBody());
+                    return;
+                }
+                System.err.println("스트리밍 채팅 처리 중 예외 발생: " + e.getMessage());
+                e.printStackTrace();
+                turn.fail(Map.of("message", "AI 모델 응답 생성에 실패했습니다. 잠시 후 다시 시도해 주세요."));
+            }
+        });
+
+        return ResponseEntity.ok().headers(limitHeaders).body(emitter);
+    }
+
+    // 스트리밍 이어받기: Last-Event-ID(마지막으로 받은 token 이벤트 ID) 다음부터 다시 전달
+    // 헤더를 직접 지정할 수 없는 클라이언트는 lastEventId 파라미터를 사용
+    // 턴이 없거나(만료/다른 사용자) 필요한 토큰이 버퍼에 남아 있지 않으면 처음부터 다시 요청해야 함
+    @GetMapping("/chat/stream/{turnId}")
+    public ResponseEntity<SseEmitter> resumeChatStream(@PathVariable String turnId, HttpSession session,
+                                                       @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                                       @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        SessionUser user = authService.currentUser(session);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String lastEventIdValue = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        int lastEventId;
+        try {
+            lastEventId = lastEventIdValue == null || lastEventIdValue.isBlank() ? 0 : Integer.parseInt(lastEventIdValue.trim());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<TurnStream> turn = turnStreams.find(turnId, user.getEmail());
+        if (turn.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        if (!subscribe(turn.get(), emitter, lastEventId)) {
+            System.out.println("턴 " + turnId + " 이어받기 불가 (Last-Event-ID: " + lastEventId + ")");
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        System.out.println("턴 " + turnId + " 이어받기 (Last-Event-ID: " + lastEventId + ")");
+        return ResponseEntity.ok(emitter);
+    }
+
+    // 배치 채팅: 여러 메시지를 제한된 병렬도로 동시에 처리하고, 성공한 턴을 한 트랜잭션으로 저장합니다.
+    // 결과는 요청 순서대로 반환하며, 실패한 항목은 error에 이유를 담습니다.
+    @PostMapping("/chat/batch")
+    public CompletableFuture<ResponseEntity<?>> handleBatchChat(@RequestBody BatchChatRequest request, HttpSession session) {
+        SessionUser user = authService.currentUser(session);
+        
+        if (user == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "로그인이 필요합니다.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error));
+        }
+        
+        List<ChatMessage> messages = request.getMessages();
+        if (messages == null || messages.isEmpty() || messages.size() > batchMaxItems) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "메시지는 1개 이상 " + batchMaxItems + "개 이하로 보내주세요.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+        }
+        
+        System.out.println("배치 채팅 요청 수신: " + messages.size() + "건");
+        
+        // 항목 수만큼 모드별 한도에서 차감 (한 모드라도 초과하면 이미 차감한 토큰을 돌려주고 거절)
+        Map<String, Integer> costByMode = new LinkedHashMap<>();
+        for (ChatMessage item : messages) {
+            costByMode.merge(item.getMode() != null ? item.getMode() : "default", 1, Integer::sum);
+        }
+        // 버킷 용량보다 많은 항목은 기다려도 허용되지 않으므로 할인하지 않고 바로 거절
+        for (Map.Entry<String, Integer> entry : costByMode.entrySet()) {
+            int maxCost = chatRateLimiter.maxCost(entry.getKey());
+            if (entry.getValue() > maxCost) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "한 번에 보낼 수 있는 메시지는 모드별로 " + maxCost + "개까지입니다. (" + entry.getKey() + ")");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+            }
+        }
+        for (String mode : costByMode.keySet()) {
+            UsageService.QuotaCheck quota = usageService.checkQuota(user.getId(), mode);
+            if (!quota.allowed()) {
+                return CompletableFuture.completedFuture(quotaExceeded(quota));
+            }
+        }
+        HttpHeaders limitHeaders = new HttpHeaders();
+        Map<String, Integer> charged = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : costByMode.entrySet()) {
+            RateLimitDecision rateLimit = checkRateLimit(user.getEmail(), entry.getKey(), entry.getValue(), limitHeaders);
+            if (!rateLimit.allowed()) {
+                charged.forEach((chargedMode, cost) -> chatRateLimiter.refund(user.getEmail(), chargedMode, cost));
+                return CompletableFuture.completedFuture(tooManyRequests(rateLimit, limitHeaders));
+            }
+            charged.put(entry.getKey(), entry.getValue());
+        }
+        
+        ChatReply[] replies = new ChatReply[messages.size()];
+        return CompletableFuture
+            .supplyAsync(() -> generateBatch(messages, replies, user), llmExecutor)
+            .<ResponseEntity<?>>thenApplyAsync(results -> {
+                saveBatch(messages, results, replies, user.getId());
+                long failed = results.stream().filter(result -> result.getError() != null).count();
+                System.out.println("배치 채팅 완료: 성공 " + (results.size() - failed) + "건, 실패 " + failed + "건");
+                return ResponseEntity.ok(Map.of("results", results));
+            }, persistenceExecutor)
+            .exceptionally(e -> {
+                if (unwrap(e) instanceof RejectedExecutionException) {
+                    return persistenceBusy();
+                }
+                System.err.println("배치 채팅 처리 중 예외 발생: " + e.getMessage());
+                e.printStackTrace();
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "서버 내부 오류가 발생했습니다.");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            })
+            .thenApply(response -> withHeaders(response, limitHeaders));
+    }
+
+    // 모드 비교: 같은 메시지를 모든 모드에 동시에 보내므로 전체 시간은 가장 느린 모드 하나와 비슷합니다.
+    // 응답은 같은 세션에 형제 턴(같은 compareGroupId)으로 저장하며, 실패한 모드는 error에 이유를 담습니다.
+    @PostMapping("/chat/compare")
+    public CompletableFuture<ResponseEntity<?>> handleCompareChat(@RequestBody ChatMessage userMessage, HttpSession session) {
+        SessionUser user = authService.currentUser(session);
+        
+        if (user == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "로그인이 필요합니다.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error));
+        }
+        if (userMessage.getMessage() == null || userMessage.getMessage().isBlank()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "메시지가 비어 있습니다.");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(error));
+        }
+        HttpHeaders limitHeaders = new HttpHeaders();
+        ResponseEntity<?> rejected = checkCompareLimits(userMessage, user, limitHeaders);
+        if (rejected != null) {
+            return CompletableFuture.completedFuture(rejected);
+        }
+        
+        System.out.println("모드 비교 요청 수신: " + userMessage.getMessage());
+        String compareGroupId = UUID.randomUUID().toString();
+        Map<String, CompletableFuture<ChatReply>> answers = startCompare(userMessage, user);
+        
+        return CompletableFuture.allOf(answers.values().toArray(new CompletableFuture[0]))
+            // 모드별 실패는 결과의 error로 전달하므로 여기서는 모두 끝나기만 기다림
+            .handle((ignored, error) -> null)
+            .<ResponseEntity<?>>thenApplyAsync(ignored -> {
+                List<CompareChatResult> results = new ArrayList<>();
+                Map<String, ChatReply> replies = new LinkedHashMap<>();
+                answers.forEach((mode, answer) -> results.add(compareResult(mode, answer, replies)));
+                Long sessionId = saveCompare(userMessage, user.getId(), compareGroupId, replies);
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("results", results);
+                response.put("sessionId", sessionId);
+                response.put("compareGroupId", compareGroupId);
+                return ResponseEntity.ok(response);
+            }, persistenceExecutor)
+            .exceptionally(e -> {
+                if (unwrap(e) instanceof RejectedExecutionException) {
+                    return persistenceBusy();
+                }
+                System.err.println("모드 비교 처리 중 예외 발생: " + e.getMessage());
+                e.printStackTrace();
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "서버 내부 오류가 발생했습니다.");
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            })
+            .thenApply(response -> withHeaders(response, limitHeaders));
+    }
+
+    // 모드 비교 (스트리밍): 모드마다 응답이 끝나는 순서대로 answer 이벤트를 보내고,
+    // 모두 저장한 뒤 done 이벤트로 세션 ID를 전달합니다. 연결이 끊겨도 생성과 저장은 계속 진행됩니다.
+    @PostMapping("/chat/compare/stream")
+    public ResponseEntity<SseEmitter> streamCompareChat(@RequestBody ChatMessage userMessage, HttpSession session) {
+        SessionUser user = authService.currentUser(session);
+        
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (userMessage.getMessage() == null || userMessage.getMessage().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        HttpHeaders limitHeaders = new HttpHeaders();
+        ResponseEntity<?> rejected = checkCompareLimits(userMessage, user, limitHeaders);
+        if (rejected != null) {
+            // 재시도 시점은 Retry-After 헤더로 전달
+            return ResponseEntity.status(rejected.getStatusCode()).headers(rejected.getHeaders()).build();
+        }
+        
+        String compareGroupId = UUID.randomUUID().toString();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Map<String, CompletableFuture<ChatReply>> answers = startCompare(userMessage, user);
+        
+        answers.forEach((mode, answer) -> answer.whenComplete((reply, error) ->
+            trySendEvent(emitter, "answer", compareResult(mode, answer, new HashMap<>()))));
+        
+        CompletableFuture.allOf(answers.values().toArray(new CompletableFuture[0]))
+            .handle((ignored, error) -> null)
+            .thenRunAsync(() -> {
+                Map<String, ChatReply> replies = new LinkedHashMap<>();
+                answers.forEach((mode, answer) -> compareResult(mode, answer, replies));
+                Long sessionId = saveCompare(userMessage, user.getId(), compareGroupId, replies);
+                
+                Map<String, Object> done = new HashMap<>();
+                done.put("sessionId", sessionId);
+                done.put("compareGroupId", compareGroupId);
+                if (trySendEvent(emitter, "done", done)) {
+                    emitter.complete();
+                }
+            }, persistenceExecutor)
+            .exceptionally(e -> {
+                Object error;
+                if (unwrap(e) instanceof RejectedExecutionException) {
+                    System.out.println("DB 작업 대기열이 가득 차 모드 비교 저장 거절");
+                    error = persistenceBusyBody();
+                } else {
+                    System.err.println("모드 비교 스트리밍 처리 중 예외 발생: " + e.getMessage());
+                    e.printStackTrace();
+                    error = Map.of("message", "서버 내부 오류가 발생했습니다.");
+                }
+                if (trySendEvent(emitter, "error", error)) {
+                    emitter.complete();
+                }
+                return null;
+            });
+        
+        return ResponseEntity.ok().headers(limitHeaders).body(emitter);
+    }
+
+    // 모든 모드에서 요청 1회씩 차감 (한 모드라도 초과하면 이미 차감한 토큰을 돌려주고 거절, 통과하면 null)
+    // 위기 표현에 대한 안내는 AI를 호출하지 않으므로 토큰 한도는 확인하지 않음 (요청 한도는 항상 확인)
+    private ResponseEntity<?> checkCompareLimits(ChatMessage userMessage, SessionUser user, HttpHeaders limitHeaders) {
+        if (!crisisResponder.matches(userMessage.getMessage())) {
+            for (String mode : PromptTemplates.MODES) {
+                UsageService.QuotaCheck quota = usageService.checkQuota(user.getId(), mode);
+                if (!quota.allowed()) {
+                    return quotaExceeded(quota);
+                }
+            }
+        }
+        List<String> charged = new ArrayList<>();
+        for (String mode : PromptTemplates.MODES) {
+            RateLimitDecision rateLimit = checkRateLimit(user.getEmail(), mode, 1, limitHeaders);
+            if (!rateLimit.allowed()) {
+                charged.forEach(chargedMode -> chatRateLimiter.refund(user.getEmail(), chargedMode, 1));
+                return tooManyRequests(rateLimit, limitHeaders);
+            }
+            charged.add(mode);
+        }
+        return null;
+    }
+
+    // 히스토리는 한 번만 불러와 모든 모드의 호출을 동시에 시작 (모드 순서대로 반환)
+    private Map<String, CompletableFuture<ChatReply>> startCompare(ChatMessage userMessage, SessionUser user) {
+        CompletableFuture<ConversationWindow> history = loadConversationHistory(userMessage, user.getId());
+        Map<String, CompletableFuture<ChatReply>> answers = new LinkedHashMap<>();
+        for (String mode : PromptTemplates.MODES) {
+            answers.put(mode, history
+                .thenCompose(window -> chatService.generateTChatResponseAsync(user.getEmail(), userMessage.getMessage(), mode, window))
+                .whenComplete((reply, error) -> {
+                    if (error == null) {
+                        usageService.record(user.getId(), mode, reply);
+                    }
+                }));
+        }
+        return answers;
+    }
+
+    // 끝난 호출의 결과 (성공한 응답은 replies에 모드별로 담음)
+    private CompareChatResult compareResult(String mode, CompletableFuture<ChatReply> answer, Map<String, ChatReply> replies) {
+        try {
+            ChatReply reply = answer.join();
+            replies.put(mode, reply);
+            return new CompareChatResult(mode, reply.getMessage(), null);
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = unwrap(e);
+            return new CompareChatResult(mode, null, cause instanceof LlmOverloadedException
+                ? cause.getMessage()
+                : "응답 생성 실패: " + cause.getMessage());
+        }
+    }
+
+    // 성공한 모드만 형제 턴으로 저장 (모두 실패하면 저장하지 않음)
+    private Long saveCompare(ChatMessage userMessage, Long userId, String compareGroupId, Map<String, ChatReply> replies) {
+        if (replies.isEmpty()) {
+            return userMessage.getSessionId();
+        }
+        Long sessionId = chatSessionService.saveCompareTurns(userId, userMessage.getSessionId(),
+            userMessage.getMessage(), compareGroupId, replies);
+        System.out.println("모드 비교 " + replies.size() + "건을 세션 " + sessionId + "에 저장");
+        return sessionId;
+    }
+
+    // 항목별 응답 생성 (최대 batchParallelism개씩 동시에, 가상 스레드에서 실행되므로 대기해도 무방)
+    // 성공한 항목의 응답(사용량 포함)은 replies의 같은 위치에 채움
+    private List<BatchChatResult> generateBatch(List<ChatMessage> messages, ChatReply[] replies, SessionUser user) {
+        List<BatchChatResult> results = new ArrayList<>();
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        Semaphore permits = new Semaphore(batchParallelism);
+        
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage item = messages.get(i);
+            BatchChatResult result = new BatchChatResult(i, null, null, null);
+            results.add(result);
             
-            // DB에 저장
-            Long sessionId = userMessage.getSessionId();
-            if (sessionId != null) {
-                // 기존 세션에 메시지 추가
-                chatSessionService.addMessageToSession(sessionId, userMessage.getMessage(), botResponse, email);
-                System.out.println("기존 세션 " + sessionId + "에 메시지 저장 완료");
-            } else {
-                // 새 세션 생성 및 메시지 저장
-                com.tchatbot.t_chatbot_backend.entity.ChatSession newSession = 
-                    chatSessionService.createSession(email, mode, null);
-                chatSessionService.addMessageToSession(newSession.getId(), userMessage.getMessage(), botResponse, email);
-                sessionId = newSession.getId();
-                System.out.println("새 세션 " + sessionId + " 생성 및 메시지 저장 완료");
+            if (item.getMessage() == null || item.getMessage().isBlank()) {
+                result.setError("메시지가 비어 있습니다.");
+                continue;
             }
             
-            // 응답에 세션 ID 포함
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", botResponse);
-            response.put("sessionId", sessionId);
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("배치 처리가 중단되었습니다.", e);
+            }
             
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            System.err.println("ChatController에서 예외 발생: " + e.getMessage());
-            e.printStackTrace();
-            Map<String, String> error = new HashMap<>();
-            error.put("message", "서버 내부 오류가 발생했습니다.");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+            String mode = item.getMode() != null ? item.getMode() : "default";
+            int index = i;
+            tasks.add(loadConversationHistory(item, user.getId())
+                .thenCompose(history -> chatService.generateTChatResponseAsync(user.getEmail(), item.getMessage(), mode, history))
+                .handle((reply, error) -> {
+                    if (error == null) {
+                        result.setMessage(reply.getMessage());
+                        replies[index] = reply;
+                        usageService.record(user.getId(), mode, reply);
+                    } else {
+                        Throwable cause = unwrap(error);
+                        result.setError(cause instanceof LlmOverloadedException
+                            ? cause.getMessage()
+                            : "응답 생성 실패: " + cause.getMessage());
+                    }
+                    permits.release();
+                    return null;
+                }));
+        }
+        
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        return results;
+    }
+
+    // 성공한 항목만 한 트랜잭션으로 저장하고 세션 ID를 결과에 채움
+    private void saveBatch(List<ChatMessage> messages, List<BatchChatResult> results, ChatReply[] replies, Long userId) {
+        List<ChatTurn> turns = new ArrayList<>();
+        List<BatchChatResult> succeeded = new ArrayList<>();
+        for (BatchChatResult result : results) {
+            if (result.getError() != null) {
+                continue;
+            }
+            ChatMessage item = messages.get(result.getIndex());
+            String mode = item.getMode() != null ? item.getMode() : "default";
+            turns.add(new ChatTurn(item.getSessionId(), mode, item.getMessage(), replies[result.getIndex()]));
+            succeeded.add(result);
+        }
+        if (turns.isEmpty()) {
+            return;
+        }
+        
+        List<Long> sessionIds = chatSessionService.saveTurns(userId, turns);
+        for (int i = 0; i < succeeded.size(); i++) {
+            succeeded.get(i).setSessionId(sessionIds.get(i));
+        }
+    }
+
+    // 기존 세션이면 서버에 저장된 대화로 히스토리를 구성하고, 새 대화면 클라이언트가 보낸 값을 사용
+    // DB 작업 풀이 가득 차 거절되면 실패한 future로 돌려주어 호출자가 503으로 응답하도록 함
+    private CompletableFuture<ConversationWindow> loadConversationHistory(ChatMessage userMessage, Long userId) {
+        if (userMessage.getSessionId() == null) {
+            return CompletableFuture.completedFuture(ConversationWindow.of(userMessage.getConversationHistory()));
+        }
+        try {
+            return CompletableFuture.supplyAsync(
+                () -> conversationWindowService.buildWindow(userMessage.getSessionId(), userId), persistenceExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // 턴 저장: 세션이 없으면 새로 만들고, 저장된 세션 ID를 반환
+    // 메시지는 저널에 기록한 뒤 반환하고 DB 저장은 write-behind로 처리
+    // write-behind를 쓰지 않거나 대기열이 가득 차면 세션 생성/갱신과 턴 저장을 한 트랜잭션으로 바로 처리
+    private Long saveTurn(Long sessionId, SessionUser user, String mode, String message, ChatReply reply) {
+        Long targetSessionId = sessionId;
+        if (targetSessionId == null && turnWriteBehind.isRunning()) {
+            // 세션 ID를 응답에 담아야 하므로 세션 생성만 바로 수행 (제목은 첫 메시지로)
+            ChatSession newSession = chatSessionService.createSessionForFirstMessage(user.getId(), mode, message);
+            targetSessionId = newSession.getId();
+            System.out.println("새 세션 " + targetSessionId + " 생성");
+        }
+
+        if (targetSessionId != null && turnWriteBehind.submit(targetSessionId, user.getEmail(), mode, message, reply)) {
+            return targetSessionId;
+        }
+
+        Long savedSessionId = chatSessionService.recordTurn(targetSessionId, user.getId(), mode, message, reply);
+        System.out.println("세션 " + savedSessionId + "에 메시지 저장 완료");
+        return savedSessionId;
+    }
+
+    // 요청 한도 확인 후 limitHeaders에 RateLimit-* 헤더 설정 (초과 시 Retry-After도 함께, 여러 번 확인하면 마지막 결과)
+    // 헤더는 ResponseEntity에 담아야 Idempotency-Key로 저장된 응답을 돌려줄 때도 함께 전달됨
+    private RateLimitDecision checkRateLimit(String email, String mode, int cost, HttpHeaders limitHeaders) {
+        RateLimitDecision decision = chatRateLimiter.tryAcquire(email, mode, cost);
+        if (!decision.isUnlimited()) {
+            limitHeaders.set("RateLimit-Limit", String.valueOf(decision.limit()));
+            limitHeaders.set("RateLimit-Remaining", String.valueOf(decision.remaining()));
+            limitHeaders.set("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+            if (!decision.allowed()) {
+                limitHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            }
+        }
+        return decision;
+    }
+
+    // 이미 만든 응답에 요청 한도 헤더 추가 (같은 이름의 헤더는 응답에 있던 값을 유지)
+    private static ResponseEntity<?> withHeaders(ResponseEntity<?> response, HttpHeaders limitHeaders) {
+        if (limitHeaders.isEmpty()) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(limitHeaders);
+        headers.putAll(response.getHeaders());
+        return ResponseEntity.status(response.getStatusCode()).headers(headers).body(response.getBody());
+    }
+
+    private ResponseEntity<?> tooManyRequests(RateLimitDecision decision, HttpHeaders limitHeaders) {
+        System.out.println("요청 한도 초과로 거절 (" + decision.retryAfterSeconds() + "초 후 재시도 가능)");
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", "요청이 너무 많습니다. 잠시 후 다시 시도해 주세요.");
+        error.put("retryAfterSeconds", decision.retryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(limitHeaders).body(error);
+    }
+
+    // 일일 토큰 한도 초과 (자정에 초기화되므로 그때까지를 Retry-After로 알려줌)
+    private ResponseEntity<?> quotaExceeded(UsageService.QuotaCheck quota) {
+        System.out.println("일일 토큰 한도 초과로 거절 (" + quota.scope() + ", " + quota.used() + "/" + quota.limit() + ")");
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", "오늘 사용할 수 있는 토큰을 모두 사용했습니다. 내일 다시 이용해 주세요.");
+        error.put("limit", quota.limit());
+        error.put("used", quota.used());
+        error.put("retryAfterSeconds", quota.resetSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(quota.resetSeconds()))
+            .body(error);
+    }
+
+    // DB 작업 풀과 대기열이 모두 찬 경우: 요청 스레드에서 대신 실행하지 않고 재시도 시점과 함께 거절
+    private ResponseEntity<?> persistenceBusy() {
+        System.out.println("DB 작업 대기열이 가득 차 요청 거절");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(persistenceRetryAfterSeconds))
+            .body(persistenceBusyBody());
+    }
+
+    private Map<String, Object> persistenceBusyBody() {
+        Map<String, Object> error = new HashMap<>();
+        error.put("message", "요청이 많아 잠시 후 다시 시도해 주세요.");
+        error.put("retryAfterSeconds", persistenceRetryAfterSeconds);
+        return error;
+    }
+
+    private Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    // 연결이 끝나면(완료/시간 초과/오류) 구독만 해제하고 생성은 계속 진행
+    private boolean subscribe(TurnStream turn, SseEmitter emitter, int lastEventId) {
+        emitter.onCompletion(() -> turn.unsubscribe(emitter));
+        emitter.onTimeout(() -> turn.unsubscribe(emitter));
+        emitter.onError(error -> turn.unsubscribe(emitter));
+        return turn.subscribe(emitter, lastEventId);
+    }
+
+    // 클라이언트 연결이 끊겨도 처리를 계속해야 하는 경우 (전송 실패 시 false)
+    private boolean trySendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            sendEvent(emitter, name, data);
+            return true;
+        } catch (UncheckedIOException | IllegalStateException e) {
+            System.out.println("SSE 전송 실패 (클라이언트 연결 종료): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
-}
\ No newline at end of file
+}
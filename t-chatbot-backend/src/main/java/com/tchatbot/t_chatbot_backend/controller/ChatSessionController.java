@@ -3,16 +3,20 @@ package com.tchatbot.t_chatbot_backend.controller;
 import com.tchatbot.t_chatbot_backend.dto.ChatSessionDetailResponse;
 import com.tchatbot.t_chatbot_backend.dto.ChatSessionResponse;
 import com.tchatbot.t_chatbot_backend.dto.CreateSessionRequest;
+import com.tchatbot.t_chatbot_backend.dto.CursorPage;
+import com.tchatbot.t_chatbot_backend.dto.KeysetCursor;
+import com.tchatbot.t_chatbot_backend.dto.SessionUser;
 import com.tchatbot.t_chatbot_backend.entity.ChatSession;
+import com.tchatbot.t_chatbot_backend.service.AuthService;
 import com.tchatbot.t_chatbot_backend.service.ChatSessionService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,25 +24,36 @@ import java.util.Map;
 public class ChatSessionController {
     
     private final ChatSessionService chatSessionService;
+    private final AuthService authService;
+    
+    @Value("${chat.pagination.session-page-size:20}")
+    private int sessionPageSize;
+    
+    @Value("${chat.pagination.message-page-size:50}")
+    private int messagePageSize;
+    
+    @Value("${chat.pagination.max-page-size:100}")
+    private int maxPageSize;
     
     @Autowired
-    public ChatSessionController(ChatSessionService chatSessionService) {
+    public ChatSessionController(ChatSessionService chatSessionService, AuthService authService) {
         this.chatSessionService = chatSessionService;
+        this.authService = authService;
     }
     
     // 새 세션 생성
     @PostMapping
     public ResponseEntity<?> createSession(@RequestBody CreateSessionRequest request, HttpSession session) {
-        String email = (String) session.getAttribute("email");
+        SessionUser user = authService.currentUser(session);
         
-        if (email == null) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "로그인이 필요합니다."));
         }
         
         try {
             ChatSession chatSession = chatSessionService.createSession(
-                    email,
+                    user.getId(),
                     request.getMode(),
                     request.getTitle()
             );
@@ -55,18 +70,28 @@ public class ChatSessionController {
         }
     }
     
-    // 사용자의 모든 세션 목록 조회
+    // 사용자의 세션 목록 조회 (최근 수정 순, 응답의 nextCursor를 cursor로 보내면 다음 페이지)
     @GetMapping
-    public ResponseEntity<?> getUserSessions(HttpSession session) {
-        String email = (String) session.getAttribute("email");
+    public ResponseEntity<?> getUserSessions(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             HttpSession session) {
+        SessionUser user = authService.currentUser(session);
         
-        if (email == null) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "로그인이 필요합니다."));
         }
         
+        KeysetCursor after;
+        try {
+            after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        
         try {
-            List<ChatSessionResponse> sessions = chatSessionService.getUserSessions(email);
+            CursorPage<ChatSessionResponse> sessions = chatSessionService.getUserSessions(
+                    user.getId(), after, pageSize(limit, sessionPageSize));
             return ResponseEntity.ok(sessions);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -74,18 +99,29 @@ public class ChatSessionController {
         }
     }
     
-    // 특정 세션의 상세 정보 및 메시지 조회
+    // 특정 세션의 상세 정보 및 메시지 조회 (가장 최근 limit개, 응답의 nextCursor를 before로 보내면 그 이전 대화)
     @GetMapping("/{sessionId}")
-    public ResponseEntity<?> getSessionDetail(@PathVariable Long sessionId, HttpSession session) {
-        String email = (String) session.getAttribute("email");
+    public ResponseEntity<?> getSessionDetail(@PathVariable Long sessionId,
+                                              @RequestParam(required = false) String before,
+                                              @RequestParam(required = false) Integer limit,
+                                              HttpSession session) {
+        SessionUser user = authService.currentUser(session);
         
-        if (email == null) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "로그인이 필요합니다."));
         }
         
+        KeysetCursor beforeCursor;
         try {
-            ChatSessionDetailResponse sessionDetail = chatSessionService.getSessionDetail(sessionId, email);
+            beforeCursor = before != null ? KeysetCursor.decode(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+        
+        try {
+            ChatSessionDetailResponse sessionDetail = chatSessionService.getSessionDetail(
+                    sessionId, user.getId(), beforeCursor, pageSize(limit, messagePageSize));
             return ResponseEntity.ok(sessionDetail);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -99,15 +135,15 @@ public class ChatSessionController {
     // 세션 삭제
     @DeleteMapping("/{sessionId}")
     public ResponseEntity<?> deleteSession(@PathVariable Long sessionId, HttpSession session) {
-        String email = (String) session.getAttribute("email");
+        SessionUser user = authService.currentUser(session);
         
-        if (email == null) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "로그인이 필요합니다."));
         }
         
         try {
-            chatSessionService.deleteSession(sessionId, email);
+            chatSessionService.deleteSession(sessionId, user.getId());
             return ResponseEntity.ok(Map.of("message", "세션이 삭제되었습니다."));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -124,9 +160,9 @@ public class ChatSessionController {
             @PathVariable Long sessionId,
             @RequestBody Map<String, String> request,
             HttpSession session) {
-        String email = (String) session.getAttribute("email");
+        SessionUser user = authService.currentUser(session);
         
-        if (email == null) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "로그인이 필요합니다."));
         }
@@ -138,7 +174,7 @@ public class ChatSessionController {
         }
         
         try {
-            ChatSession updatedSession = chatSessionService.updateSessionTitle(sessionId, newTitle, email);
+            ChatSession updatedSession = chatSessionService.updateSessionTitle(sessionId, newTitle, user.getId());
             return ResponseEntity.ok(Map.of(
                     "message", "제목이 수정되었습니다.",
                     "title", updatedSession.getTitle()
@@ -151,4 +187,12 @@ public class ChatSessionController {
                     .body(Map.of("message", "제목 수정 중 오류가 발생했습니다."));
         }
     }
+    
+    // 요청한 페이지 크기 (지정하지 않으면 기본값, 1 ~ max-page-size)
+    private int pageSize(Integer limit, int defaultSize) {
+        if (limit == null) {
+            return defaultSize;
+        }
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
 }
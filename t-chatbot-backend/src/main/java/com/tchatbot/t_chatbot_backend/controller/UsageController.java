@@ -0,0 +1,75 @@
+package com.tchatbot.t_chatbot_backend.controller;
+
+import com.tchatbot.t_chatbot_backend.dto.SessionUser;
+import com.tchatbot.t_chatbot_backend.dto.UsageSummary;
+import com.tchatbot.t_chatbot_backend.service.AuthService;
+import com.tchatbot.t_chatbot_backend.service.UsageService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/usage")
+public class UsageController {
+    
+    private static final int MAX_DAYS = 90;
+    
+    private final UsageService usageService;
+    private final AuthService authService;
+    
+    @Autowired
+    public UsageController(UsageService usageService, AuthService authService) {
+        this.usageService = usageService;
+        this.authService = authService;
+    }
+    
+    // 로그인한 사용자의 최근 사용량 (날짜/모드별, 모드별 합계, 오늘 사용량과 한도)
+    @GetMapping
+    public ResponseEntity<?> getUsage(@RequestParam(defaultValue = "7") int days, HttpSession session) {
+        SessionUser user = authService.currentUser(session);
+        
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "로그인이 필요합니다."));
+        }
+        
+        try {
+            int range = Math.min(Math.max(days, 1), MAX_DAYS);
+            List<UsageSummary> daily = usageService.getUsage(user.getId(), range);
+            
+            Map<String, Long> totalsByMode = new LinkedHashMap<>();
+            long todayTokens = 0;
+            LocalDate today = LocalDate.now();
+            for (UsageSummary summary : daily) {
+                totalsByMode.merge(summary.getMode(), summary.getTotalTokens(), Long::sum);
+                if (summary.getDate().equals(today)) {
+                    todayTokens += summary.getTotalTokens();
+                }
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("days", range);
+            response.put("daily", daily);
+            response.put("totalsByMode", totalsByMode);
+            response.put("todayTokens", todayTokens);
+            response.put("dailyTokenQuota", usageService.getDailyTokenQuota());
+            response.put("modeTokenQuotas", usageService.getModeTokenQuotas());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "사용량 조회 중 오류가 발생했습니다."));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchChatRequest {
+    private List<ChatMessage> messages; // 항목마다 모드/세션을 따로 지정할 수 있음
+}
@@ -0,0 +1,17 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchChatResult {
+    private Integer index; // 요청 순서
+    private String message; // 챗봇 응답 (실패 시 null)
+    private Long sessionId; // 저장된 세션 ID (실패 시 null)
+    private String error; // 항목별 오류 메시지 (성공 시 null)
+}
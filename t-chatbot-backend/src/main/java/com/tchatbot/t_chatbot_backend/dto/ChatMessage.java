@@ -15,7 +15,7 @@ public class ChatMessage {
     private String message;
     private String mode; // "default", "love", "tbrainwash"
     private Long sessionId; // 세션 ID (선택사항 - 새 대화면 null)
-    private List<ConversationPair> conversationHistory; // 현재 대화창 히스토리
+    private List<ConversationPair> conversationHistory; // 현재 대화창 히스토리 (sessionId가 있으면 서버에 저장된 대화를 사용하므로 무시됨)
     
     public ChatMessage(String message) {
         this.message = message;
@@ -0,0 +1,46 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import com.tchatbot.t_chatbot_backend.llm.LlmUsage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 응답 생성 결과 (캐시 적중이나 실패 안내처럼 모델을 호출하지 않았으면 토큰 수는 null)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReply {
+    private String message;
+    private Integer promptTokens;
+    private Integer outputTokens;
+    private Integer thinkingTokens;
+    private Long latencyMs; // 요청 처리 시작부터 응답 완료까지 (대기 시간 포함)
+    private boolean failed; // 모델 호출이 실패해 안내 메시지로 대신한 응답 (저장/재사용하지 않음)
+    
+    public static ChatReply of(String message, LlmUsage usage, long latencyMs) {
+        if (usage == null) {
+            return new ChatReply(message, null, null, null, latencyMs, false);
+        }
+        return new ChatReply(message, usage.promptTokens(), usage.outputTokens(), usage.thinkingTokens(), latencyMs, false);
+    }
+    
+    public static ChatReply withoutUsage(String message) {
+        return new ChatReply(message, null, null, null, null, false);
+    }
+    
+    // 모델 호출 실패 시 사용자에게 보여줄 안내 (응답으로 취급하지 않음)
+    public static ChatReply failure(String message) {
+        return new ChatReply(message, null, null, null, null, true);
+    }
+    
+    // 모델을 직접 호출하지 않고 다른 요청의 결과를 함께 받은 경우 (사용량은 호출한 요청에만 기록)
+    public ChatReply withoutTokens() {
+        return new ChatReply(message, null, null, null, latencyMs, failed);
+    }
+    
+    public boolean hasUsage() {
+        return promptTokens != null || outputTokens != null || thinkingTokens != null;
+    }
+}
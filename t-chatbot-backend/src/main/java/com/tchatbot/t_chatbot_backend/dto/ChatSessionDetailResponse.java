@@ -18,7 +18,8 @@ public class ChatSessionDetailResponse {
     private String mode;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private List<MessagePair> messages;
+    private List<MessagePair> messages; // 시간순 (가장 최근 페이지부터 요청)
+    private String nextCursor; // 더 오래된 대화를 가져올 커서 (없으면 null)
     
     @Getter
     @Setter
@@ -29,5 +30,7 @@ public class ChatSessionDetailResponse {
         private String userMessage;
         private String botResponse;
         private LocalDateTime createdAt;
+        private String mode; // 모드 비교 턴의 응답 모드 (일반 턴은 null)
+        private String compareGroupId; // 같은 질문의 모드 비교 턴끼리 같은 값
     }
 }
@@ -19,4 +19,5 @@ public class ChatSessionResponse {
     private LocalDateTime updatedAt;
     private Integer messageCount;
     private String lastMessage; // 마지막 메시지 미리보기
+    private LocalDateTime lastMessageAt;
 }
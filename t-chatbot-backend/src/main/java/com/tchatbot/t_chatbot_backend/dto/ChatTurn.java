@@ -0,0 +1,18 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// 저장할 대화 턴 하나 (배치 저장용)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatTurn {
+    private Long sessionId; // 기존 세션 ID (새 대화면 null)
+    private String mode;
+    private String userMessage;
+    private ChatReply reply; // 응답과 토큰 사용량
+}
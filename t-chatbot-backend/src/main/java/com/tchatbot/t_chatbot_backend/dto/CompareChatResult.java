@@ -0,0 +1,16 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompareChatResult {
+    private String mode;
+    private String message; // 해당 모드의 챗봇 응답 (실패 시 null)
+    private String error; // 실패 이유 (성공 시 null)
+}
@@ -0,0 +1,27 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatMessage.ConversationPair;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// 프롬프트에 들어갈 대화 맥락: 오래된 대화의 요약 + 그 이후의 최근 턴
+@Getter
+@AllArgsConstructor
+public class ConversationWindow {
+    private final String summary; // 누적 요약 (없으면 null)
+    private final List<ConversationPair> turns; // 요약 이후의 최근 대화 (시간순)
+    
+    public static ConversationWindow of(List<ConversationPair> turns) {
+        return new ConversationWindow(null, turns);
+    }
+    
+    public boolean isEmpty() {
+        return (summary == null || summary.isEmpty()) && (turns == null || turns.isEmpty());
+    }
+    
+    public int turnCount() {
+        return turns != null ? turns.size() : 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// 키셋 페이지 (다음 페이지가 없으면 nextCursor는 null)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
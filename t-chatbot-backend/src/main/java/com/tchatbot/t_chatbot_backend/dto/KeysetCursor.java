@@ -0,0 +1,34 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 키셋 페이지네이션 커서 (정렬 기준 시각 + ID)
+ * 목록은 (시각, ID) 내림차순으로 정렬하며, 다음 페이지는 커서보다 앞선 행부터 가져옵니다.
+ * 클라이언트에는 내용을 해석할 필요가 없는 문자열(Base64)로 전달합니다.
+ */
+public record KeysetCursor(LocalDateTime at, Long id) {
+
+    public String encode() {
+        String raw = at + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 잘못된 커서는 IllegalArgumentException (400 응답)
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * 로그인 시 HTTP 세션에 저장하는 사용자 정보 (ID, 이메일, 이름)
+ * 요청마다 사용자 테이블을 조회하지 않고 ID로 바로 소유권을 확인하기 위해 사용합니다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionUser implements Serializable {
+    
+    // HTTP 세션 속성 이름
+    public static final String ATTRIBUTE = "user";
+    
+    private Long id;
+    private String email;
+    private String username;
+    
+    // 세션 기반이므로 토큰 대신 null
+    public AuthResponse toAuthResponse() {
+        return new AuthResponse(null, username, email);
+    }
+}
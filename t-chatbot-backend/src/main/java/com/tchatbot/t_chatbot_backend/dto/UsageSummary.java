@@ -0,0 +1,26 @@
+package com.tchatbot.t_chatbot_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// 날짜/모드별 사용량 (사용량 조회 응답용)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageSummary {
+    private LocalDate date;
+    private String mode;
+    private long requestCount;
+    private long promptTokens;
+    private long outputTokens;
+    private long thinkingTokens;
+    
+    public long getTotalTokens() {
+        return promptTokens + outputTokens + thinkingTokens;
+    }
+}
@@ -10,7 +10,8 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_history")
+@Table(name = "chat_history",
+       indexes = @Index(name = "idx_chat_history_session_created", columnList = "session_id, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,4 +41,35 @@ public class ChatHistory {
     private LocalDateTime createdAt;
     
     private Boolean isPublic = false; // 공유 여부
+    
+    // write-behind 저장 시 부여한 턴 ID (저널 재처리 시 중복 저장 방지, 바로 저장한 턴은 null)
+    @Column(length = 36, unique = true)
+    private String turnId;
+    
+    // 토큰 사용량과 응답 시간 (캐시 적중 등 모델을 호출하지 않았거나 기록 이전의 대화는 null)
+    private Integer promptTokens;
+    
+    private Integer outputTokens;
+    
+    private Integer thinkingTokens;
+    
+    private Long latencyMs;
+    
+    // 모드 비교(/api/chat/compare)로 만든 턴: 응답한 모드와 같은 질문의 형제 턴끼리 공유하는 그룹 ID
+    // 일반 턴은 둘 다 null (응답 모드는 세션 모드)
+    @Column(length = 20)
+    private String mode;
+    
+    @Column(length = 36)
+    private String compareGroupId;
+    
+    // 편의 메서드: 대화 맥락(히스토리/요약)에 포함할 턴인지 확인
+    // 모드 비교 턴은 형제 중 세션 모드의 응답 하나만 포함 (비교 전용 세션이면 default)
+    public boolean isContextTurn(String sessionMode) {
+        if (compareGroupId == null) {
+            return true;
+        }
+        String preferredMode = ChatSession.COMPARE_MODE.equals(sessionMode) ? "default" : sessionMode;
+        return preferredMode != null && preferredMode.equals(mode);
+    }
 }
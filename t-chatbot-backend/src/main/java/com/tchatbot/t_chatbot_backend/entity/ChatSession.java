@@ -13,13 +13,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "chat_sessions")
+@Table(name = "chat_sessions",
+       indexes = @Index(name = "idx_chat_sessions_user_updated", columnList = "user_id, updated_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatSession {
     
+    // 모드 비교로 시작한 세션의 모드
+    public static final String COMPARE_MODE = "compare";
+    
+    // 첫 메시지 전에 만든 세션의 제목 (첫 메시지가 저장되면 그 내용으로 바뀜)
+    public static final String DEFAULT_TITLE = "새로운 대화";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,7 +39,7 @@ public class ChatSession {
     private String title; // 세션 제목 (첫 질문 기반 자동 생성 또는 사용자 지정)
     
     @Column(length = 20)
-    private String mode = "default"; // default, love, tbrainwash
+    private String mode = "default"; // default, love, tbrainwash, compare
     
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
@@ -42,6 +49,23 @@ public class ChatSession {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @Column(columnDefinition = "TEXT")
+    private String summary; // 오래된 대화의 누적 요약 (백그라운드에서 갱신)
+    
+    @Column(name = "summarized_up_to_id")
+    private Long summarizedUpToId; // 요약에 포함된 마지막 chat_history ID
+    
+    // 세션 목록용 비정규화 컬럼 (목록 조회 시 메시지를 불러오지 않도록 턴 저장과 같은 트랜잭션에서 증분 갱신)
+    // 컬럼 추가 이전의 세션은 null이며, 시작 시 SessionStatsBackfill이 채움
+    @Column(name = "message_count")
+    private Integer messageCount = 0;
+    
+    @Column(name = "last_message_preview", length = 50)
+    private String lastMessagePreview; // 마지막 사용자 메시지 (50자 제한)
+    
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+    
     @OneToMany(mappedBy = "chatSession", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ChatHistory> messages = new ArrayList<>();
     
@@ -51,14 +75,30 @@ public class ChatSession {
         chatHistory.setChatSession(this);
     }
     
+    // 편의 메서드: 메시지가 없는 세션인지 (비정규화 컬럼을 채우기 전이면 메시지를 직접 확인)
+    public boolean hasNoMessages() {
+        return messageCount != null ? messageCount == 0 : messages.isEmpty();
+    }
+    
+    // 편의 메서드: 목록에 표시할 마지막 메시지 미리보기 (50자 제한)
+    public static String previewOf(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 50 ? message.substring(0, 47) + "..." : message;
+    }
+    
     // 편의 메서드: 제목 자동 생성 (첫 메시지 기반, 50자 제한)
     public void generateTitleFromFirstMessage(String firstMessage) {
+        this.title = titleFrom(firstMessage);
+    }
+    
+    public static String titleFrom(String firstMessage) {
         if (firstMessage != null && !firstMessage.isEmpty()) {
-            this.title = firstMessage.length() > 50 
+            return firstMessage.length() > 50 
                 ? firstMessage.substring(0, 47) + "..." 
                 : firstMessage;
-        } else {
-            this.title = "새로운 대화";
         }
+        return DEFAULT_TITLE;
     }
 }
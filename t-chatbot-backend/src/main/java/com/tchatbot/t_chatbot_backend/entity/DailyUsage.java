@@ -0,0 +1,50 @@
+package com.tchatbot.t_chatbot_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// 사용자/모드/날짜별 토큰 사용량 합계 (메모리에서 모은 값을 주기적으로 더함)
+@Entity
+@Table(name = "daily_usage",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "mode", "usage_date"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyUsage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false, length = 20)
+    private String mode;
+    
+    @Column(name = "usage_date", nullable = false)
+    private LocalDate usageDate;
+    
+    @Column(nullable = false)
+    private long requestCount;
+    
+    @Column(nullable = false)
+    private long promptTokens;
+    
+    @Column(nullable = false)
+    private long outputTokens;
+    
+    @Column(nullable = false)
+    private long thinkingTokens;
+    
+    public long getTotalTokens() {
+        return promptTokens + outputTokens + thinkingTokens;
+    }
+}
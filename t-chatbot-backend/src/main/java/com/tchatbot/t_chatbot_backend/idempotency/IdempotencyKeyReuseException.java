@@ -0,0 +1,11 @@
+package com.tchatbot.t_chatbot_backend.idempotency;
+
+/**
+ * 같은 Idempotency-Key로 내용이 다른 요청을 보낸 경우 (422로 응답)
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,145 @@
+package com.tchatbot.t_chatbot_backend.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key별 응답 저장소
+ * 같은 키로 다시 온 요청은 새로 처리하지 않습니다.
+ * - 처리 중이면: 원래 요청의 결과를 함께 기다림
+ * - 완료되었으면: 저장된 응답을 그대로 돌려줌 (완료 후 ttl-seconds 동안)
+ * 성공(2xx)한 응답만 보관하므로, 실패하거나 거절된 요청은 같은 키로 다시 시도할 수 있습니다.
+ * 키는 최대 max-entries개까지 보관하며, 넘치면 오래된 키부터 제거합니다.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter replayedCounter;
+
+    public IdempotencyStore(@Value("${chat.idempotency.ttl-seconds:3600}") long ttlSeconds,
+                            @Value("${chat.idempotency.max-entries:10000}") int maxEntries,
+                            MeterRegistry meterRegistry) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        // 삽입 순서 기준으로 가장 오래된 키부터 제거
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.replayedCounter = Counter.builder("chat.idempotency.replayed")
+                .description("Idempotency-Key로 재처리 없이 응답한 요청 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 키가 처음이면 call을 실행하고, 아니면 원래 요청의 응답을 돌려줌
+     * scope는 키를 구분할 범위(사용자), fingerprint는 요청 내용으로, 같은 키에 다른 내용이 오면
+     * IdempotencyKeyReuseException을 던집니다.
+     */
+    public CompletableFuture<ResponseEntity<?>> execute(String scope, String key, String fingerprint,
+                                                        Supplier<CompletableFuture<ResponseEntity<?>>> call) {
+        String storeKey = scope + '\u0001' + key;
+        long now = System.nanoTime();
+
+        Entry entry;
+        boolean owner = false;
+        lock.lock();
+        try {
+            entry = entries.get(storeKey);
+            if (entry != null && entry.isExpired(now, ttlNanos)) {
+                entries.remove(storeKey);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(storeKey, entry);
+                owner = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!owner) {
+            if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReuseException("같은 Idempotency-Key로 다른 요청을 보낼 수 없습니다.");
+            }
+            replayedCounter.increment();
+            // 호출자마다 별도의 future (한 호출자가 취소해도 다른 호출자에게 영향 없음)
+            return entry.response.thenApply(IdempotencyStore::markReplayed);
+        }
+
+        CompletableFuture<ResponseEntity<?>> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            remove(storeKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+
+        Entry ownedEntry = entry;
+        result.whenComplete((response, error) -> {
+            if (error != null || response == null || !response.getStatusCode().is2xxSuccessful()) {
+                // 실패는 보관하지 않음 - 기다리던 요청에는 같은 결과를 주고, 이후 재시도는 새로 처리
+                remove(storeKey, ownedEntry);
+            } else {
+                ownedEntry.completedAt = System.nanoTime();
+            }
+            if (error != null) {
+                ownedEntry.response.completeExceptionally(error);
+            } else {
+                ownedEntry.response.complete(response);
+            }
+        });
+        return result;
+    }
+
+    private void remove(String storeKey, Entry entry) {
+        lock.lock();
+        try {
+            entries.remove(storeKey, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static ResponseEntity<?> markReplayed(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        // 완료 시각 (처리 중이면 0, 처리 중인 키는 만료되지 않음)
+        private volatile long completedAt;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(long now, long ttlNanos) {
+            long completed = completedAt;
+            return completed != 0 && now - completed > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Gemini 동시 호출 수 제한 (AIMD)
+ * - 응답이 기준 지연 시간 안에 오면 한도를 조금씩(1/limit) 늘리고,
+ *   느려지거나 실패하면 한도를 비율만큼 줄입니다.
+ * - 한도를 넘는 요청은 짧은 대기열에서 기다리고, 대기열이 가득 차거나 대기 시간이 지나면
+ *   LlmOverloadedException으로 즉시 거절합니다.
+ * - 대기열은 사용자별로 나누고 deficit round-robin으로 자리를 나눠 주므로,
+ *   한 사용자가 요청을 몰아 보내도 다른 사용자의 요청은 그 뒤에 밀리지 않습니다.
+ *   모드별 가중치(mode-weights)만큼 한 차례에 더 많은(또는 적은) 자리를 받습니다.
+ * - 대화 요약 같은 백그라운드 호출은 별도의 대기열 하나로 모아 background-weight(기본 0.25)만큼만 자리를 받으므로,
+ *   사용자 요청과 같은 한도 안에서 돌되 사용자 요청을 밀어내지 않습니다.
+ * 호출 스레드가 가상 스레드이므로 synchronized 대신 ReentrantLock을 사용합니다.
+ *
+ * 모드별 가중치 형식: chat.limiter.mode-weights=tbrainwash:0.5,love:1 (지정하지 않은 모드는 1)
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    // 사용자 이메일과 겹치지 않는 백그라운드 대기열 키
+    private static final String BACKGROUND_FLOW = "\u0000background";
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final long maxWaitMillis;
+    private final long latencyThresholdMillis;
+    private final double backoffRatio;
+    private final int maxQueuePerUser;
+    private final Map<String, Double> modeWeights;
+    private final double backgroundWeight;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 대기 중인 요청이 있는 사용자별 대기열 (activeFlows 순서대로 돌아가며 자리를 받음)
+    private final Map<String, Flow> flows = new HashMap<>();
+    private final Deque<Flow> activeFlows = new ArrayDeque<>();
+    private int waiting;
+    private double limit;
+    private int inFlight;
+    private double averageLatencyMillis;
+    private long lastDecreaseAt;
+
+    private final Counter rejectedCounter;
+    private final Map<String, Timer> queueWaitTimers = new HashMap<>();
+    private final Timer backgroundQueueWaitTimer;
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${chat.limiter.enabled:true}") boolean enabled,
+            @Value("${chat.limiter.initial-limit:10}") int initialLimit,
+            @Value("${chat.limiter.min-limit:1}") int minLimit,
+            @Value("${chat.limiter.max-limit:100}") int maxLimit,
+            @Value("${chat.limiter.max-queue-size:50}") int maxQueueSize,
+            @Value("${chat.limiter.max-wait-ms:3000}") long maxWaitMillis,
+            @Value("${chat.limiter.latency-threshold-ms:20000}") long latencyThresholdMillis,
+            @Value("${chat.limiter.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${chat.limiter.max-queue-per-user:10}") int maxQueuePerUser,
+            @Value("${chat.limiter.mode-weights:}") String modeWeights,
+            @Value("${chat.limiter.background-weight:0.25}") double backgroundWeight,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = maxQueueSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.backoffRatio = backoffRatio;
+        this.maxQueuePerUser = maxQueuePerUser;
+        this.modeWeights = parseModeWeights(modeWeights);
+        if (backgroundWeight <= 0) {
+            throw new IllegalArgumentException("chat.limiter.background-weight는 0보다 커야 합니다: " + backgroundWeight);
+        }
+        this.backgroundWeight = backgroundWeight;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Gauge.builder("chat.llm.limiter.limit", this, AdaptiveConcurrencyLimiter::currentLimit)
+                .register(meterRegistry);
+        Gauge.builder("chat.llm.limiter.in-flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .register(meterRegistry);
+        Gauge.builder("chat.llm.limiter.queue-depth", this, AdaptiveConcurrencyLimiter::queueDepth)
+                .register(meterRegistry);
+        Gauge.builder("chat.llm.limiter.waiting-users", this, AdaptiveConcurrencyLimiter::waitingUsers)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("chat.llm.limiter.rejected").register(meterRegistry);
+
+        // 사용자 수만큼 태그가 늘어나지 않도록 대기 시간은 모드별로 기록
+        for (String mode : PromptTemplates.MODES) {
+            queueWaitTimers.put(mode, Timer.builder("chat.llm.limiter.queue-wait")
+                    .description("동시 호출 자리를 얻기까지 기다린 시간")
+                    .tag("mode", mode)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        this.backgroundQueueWaitTimer = Timer.builder("chat.llm.limiter.queue-wait")
+                .description("동시 호출 자리를 얻기까지 기다린 시간")
+                .tag("mode", "background")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 한도 안에서 호출을 실행합니다. 정상 응답은 지연 시간을, 과부하 신호(429/5xx/시간 초과)는 실패를 기록합니다.
+     */
+    public <T> T execute(Supplier<T> call) {
+        return execute(null, null, call);
+    }
+
+    /**
+     * 사용자별 공정 대기열을 거쳐 호출을 실행합니다 (user가 null이면 익명 대기열).
+     */
+    public <T> T execute(String user, String mode, Supplier<T> call) {
+        return run(acquire(user, mode), call);
+    }
+
+    /**
+     * 백그라운드 작업(대화 요약 등)의 호출을 실행합니다.
+     * 모든 백그라운드 호출이 대기열 하나를 함께 쓰고 background-weight만큼만 자리를 받습니다.
+     * 대기열이 가득 차거나 대기 시간이 지나면 사용자 요청과 같이 LlmOverloadedException으로 거절됩니다.
+     */
+    public <T> T executeBackground(Supplier<T> call) {
+        if (!enabled) {
+            return run(new Permit(false), call);
+        }
+        return run(acquire(BACKGROUND_FLOW, backgroundQueueWaitTimer, backgroundWeight), call);
+    }
+
+    private <T> T run(Permit permit, Supplier<T> call) {
+        try {
+            T result = call.get();
+            permit.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            permit.onFailure(e);
+            throw e;
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * 자리를 얻을 때까지 기다립니다 (최대 max-wait-ms).
+     * 반환된 Permit은 반드시 close() 해야 합니다.
+     */
+    public Permit acquire() {
+        return acquire(null, null);
+    }
+
+    /**
+     * 사용자별 공정 대기열에서 자리를 얻을 때까지 기다립니다 (최대 max-wait-ms).
+     * 반환된 Permit은 반드시 close() 해야 합니다.
+     */
+    public Permit acquire(String user, String mode) {
+        if (!enabled) {
+            return new Permit(false);
+        }
+
+        String resolvedMode = PromptTemplates.resolveMode(mode);
+        return acquire(user != null ? user : "", queueWaitTimers.get(resolvedMode),
+                modeWeights.getOrDefault(resolvedMode, 1.0));
+    }
+
+    private Permit acquire(String flowKey, Timer queueWaitTimer, double weight) {
+        long queuedAt = System.nanoTime();
+
+        Waiter waiter;
+        lock.lock();
+        try {
+            // 먼저 기다리던 요청이 있으면 새 요청이 앞지르지 않도록 대기열로 보냄
+            if (inFlight < (int) limit && activeFlows.isEmpty()) {
+                inFlight++;
+                queueWaitTimer.record(0, TimeUnit.NANOSECONDS);
+                return new Permit(true);
+            }
+            Flow flow = flows.get(flowKey);
+            if (waiting >= maxQueueSize || (flow != null && flow.waiters.size() >= maxQueuePerUser)) {
+                throw overloaded();
+            }
+            if (flow == null) {
+                flow = new Flow(flowKey);
+                flows.put(flowKey, flow);
+                activeFlows.addLast(flow);
+            }
+            // 한 사용자의 대기열 안에서는 먼저 온 요청의 가중치를 따름
+            if (flow.waiters.isEmpty()) {
+                flow.weight = weight;
+            }
+            waiter = new Waiter(flow);
+            flow.waiters.addLast(waiter);
+            waiting++;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            waiter.granted.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (abandon(waiter)) {
+                throw overloaded();
+            }
+            // 시간 초과와 동시에 자리를 받은 경우 그대로 진행
+        } catch (InterruptedException e) {
+            if (!abandon(waiter)) {
+                releaseSlot();
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("AI 호출 대기 중 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            // 대기자는 정상 완료만 되므로 발생하지 않음
+            throw new IllegalStateException(e);
+        }
+        queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        return new Permit(true);
+    }
+
+    /**
+     * 빈 자리가 있을 때만 바로 자리를 얻습니다 (대기열에 들어가지 않음).
+     * 기다리는 요청이 있거나 한도가 찼으면 null을 반환합니다. hedge처럼 생략해도 되는 추가 호출용입니다.
+     */
+    public Permit tryAcquire() {
+        if (!enabled) {
+            return new Permit(false);
+        }
+        lock.lock();
+        try {
+            if (inFlight < (int) limit && activeFlows.isEmpty()) {
+                inFlight++;
+                return new Permit(true);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 대기를 포기 (이미 자리를 받았으면 false)
+    private boolean abandon(Waiter waiter) {
+        lock.lock();
+        try {
+            Flow flow = waiter.flow;
+            if (!flow.waiters.remove(waiter)) {
+                return false;
+            }
+            waiting--;
+            if (flow.waiters.isEmpty()) {
+                deactivate(flow);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            inFlight--;
+            grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordSuccess(long latencyMillis) {
+        lock.lock();
+        try {
+            averageLatencyMillis = averageLatencyMillis == 0
+                    ? latencyMillis
+                    : averageLatencyMillis + LATENCY_SMOOTHING * (latencyMillis - averageLatencyMillis);
+            if (latencyMillis > latencyThresholdMillis) {
+                decrease();
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordDrop() {
+        lock.lock();
+        try {
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 한 번의 장애로 동시에 실패한 요청들이 한도를 바닥까지 떨어뜨리지 않도록
+    // 평균 응답 시간(최소 1초)에 한 번만 줄임
+    private void decrease() {
+        long now = System.currentTimeMillis();
+        if (now - lastDecreaseAt < Math.max(1000, (long) averageLatencyMillis)) {
+            return;
+        }
+        lastDecreaseAt = now;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        System.out.println("Gemini 동시 호출 한도 감소: " + (int) limit);
+    }
+
+    /**
+     * 빈 자리를 사용자별 대기열에 deficit round-robin으로 배분 (lock을 잡은 상태에서 호출)
+     * 차례가 온 사용자는 가중치만큼 deficit을 받고, deficit 1당 요청 하나에 자리를 받습니다.
+     * deficit이 1보다 작으면 다음 사용자로 차례를 넘기며, 대기열이 빈 사용자는 deficit을 잃습니다.
+     */
+    private void grantWaiters() {
+        while (inFlight < (int) limit && !activeFlows.isEmpty()) {
+            Flow flow = activeFlows.peekFirst();
+            if (!flow.credited) {
+                flow.deficit += flow.weight;
+                flow.credited = true;
+            }
+            if (flow.deficit < 1) {
+                flow.credited = false;
+                activeFlows.addLast(activeFlows.pollFirst());
+                continue;
+            }
+
+            Waiter waiter = flow.waiters.pollFirst();
+            flow.deficit -= 1;
+            waiting--;
+            inFlight++;
+            waiter.granted.complete(null);
+            if (flow.waiters.isEmpty()) {
+                deactivate(flow);
+            }
+        }
+    }
+
+    private void deactivate(Flow flow) {
+        activeFlows.remove(flow);
+        flows.remove(flow.key);
+    }
+
+    // 재시도 대상 오류와 같은 기준 (429/5xx/시간 초과/네트워크 오류)
+    static boolean isOverloadSignal(Throwable e) {
+        return GeminiResilience.isRetryable(e);
+    }
+
+    private static Map<String, Double> parseModeWeights(String modeWeights) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : modeWeights.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !PromptTemplates.MODES.contains(parts[0]) || Double.parseDouble(parts[1]) <= 0) {
+                throw new IllegalArgumentException("chat.limiter.mode-weights 형식이 잘못되었습니다: " + entry);
+            }
+            weights.put(parts[0], Double.parseDouble(parts[1]));
+        }
+        return Map.copyOf(weights);
+    }
+
+    private LlmOverloadedException overloaded() {
+        rejectedCounter.increment();
+        return new LlmOverloadedException("요청이 많아 잠시 후 다시 시도해 주세요.", retryAfterSeconds());
+    }
+
+    // 자리가 하나 빌 때까지의 대략적인 시간 = 평균 응답 시간
+    private long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(averageLatencyMillis / 1000.0));
+    }
+
+    private double currentLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double queueDepth() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double waitingUsers() {
+        lock.lock();
+        try {
+            return activeFlows.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 사용자 한 명의 대기열
+    private static final class Flow {
+        private final String key;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private double weight = 1.0;
+        private double deficit;
+        private boolean credited; // 이번 차례에 가중치를 이미 받았는지
+
+        private Flow(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Waiter {
+        private final Flow flow;
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        private Waiter(Flow flow) {
+            this.flow = flow;
+        }
+    }
+
+    /**
+     * 동시 호출 자리 하나
+     * onSuccess/onFailure로 결과를 기록하고, close()로 자리를 반납합니다.
+     * 결과를 기록하지 않고 닫으면(클라이언트 연결 종료 등) 한도 조정 없이 반납만 합니다.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final boolean tracked;
+        private final long startedAt = System.nanoTime();
+        private boolean recorded;
+        private boolean closed;
+
+        private Permit(boolean tracked) {
+            this.tracked = tracked;
+        }
+
+        public void onSuccess() {
+            if (tracked && !recorded) {
+                recorded = true;
+                recordSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            }
+        }
+
+        /**
+         * 실패 기록: 과부하 신호(429, 5xx, 시간 초과, 네트워크 오류)만 한도를 줄이고,
+         * 400 등 요청 자체의 오류는 Gemini 상태와 무관하므로 한도 조정 없이 넘어갑니다.
+         */
+        public void onFailure(Throwable e) {
+            if (isOverloadSignal(e)) {
+                onDropped();
+            } else {
+                recorded = true;
+            }
+        }
+
+        public void onDropped() {
+            if (tracked && !recorded) {
+                recorded = true;
+                recordDrop();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (tracked && !closed) {
+                closed = true;
+                releaseSlot();
+            }
+        }
+    }
+}
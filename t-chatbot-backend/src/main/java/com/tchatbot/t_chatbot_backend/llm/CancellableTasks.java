@@ -0,0 +1,35 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * 취소하면 작업 스레드까지 인터럽트하는 비동기 실행
+ * CompletableFuture.supplyAsync의 future는 cancel(true)를 호출해도 실행 중인 작업을 중단하지 않으므로,
+ * 작업을 FutureTask로 감싸 executor에 넘기고 반환한 future가 취소되면 FutureTask도 취소합니다.
+ */
+public final class CancellableTasks {
+
+    private CancellableTasks() {
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, ExecutorService executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                result.complete(supplier.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, null);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        executor.execute(task);
+        return result;
+    }
+}
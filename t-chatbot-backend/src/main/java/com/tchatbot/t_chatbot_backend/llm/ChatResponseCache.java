@@ -0,0 +1,257 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatMessage.ConversationPair;
+import com.tchatbot.t_chatbot_backend.dto.ConversationWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gemini 응답 캐시 (2단계)
+ * - L1: 모드 + 정규화된 메시지 + 대화 히스토리 지문으로 정확히 일치하는 경우 (LRU + TTL)
+ * - L2: 히스토리가 없는 첫 질문에 한해, SimHash로 거의 같은 문장을 찾는 경우 (선택 사항)
+ * 캐시가 답변을 뻔하게 만들지 않도록 모드별로 끌 수 있습니다.
+ */
+@Component
+public class ChatResponseCache {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final boolean nearDuplicateEnabled;
+    private final int nearDuplicateMaxDistance;
+    private final int nearDuplicateMinLength;
+    private final int nearDuplicateMaxEntriesPerMode;
+    private final Set<String> disabledModes;
+
+    private final Map<String, CacheEntry> exactEntries;
+    private final Map<String, Deque<NearDuplicateEntry>> nearDuplicateEntries = new HashMap<>();
+
+    // 요청 카운터는 모드마다 시작 시 한 번만 등록 (알 수 없는 모드는 기본 모드로 집계해 태그 수를 제한)
+    private final Map<String, RequestCounters> requestCounters = new HashMap<>();
+
+    public ChatResponseCache(
+            @Value("${chat.cache.enabled:true}") boolean enabled,
+            @Value("${chat.cache.max-size:10000}") int maxSize,
+            @Value("${chat.cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${chat.cache.near-duplicate.enabled:false}") boolean nearDuplicateEnabled,
+            @Value("${chat.cache.near-duplicate.max-distance:3}") int nearDuplicateMaxDistance,
+            @Value("${chat.cache.near-duplicate.min-length:4}") int nearDuplicateMinLength,
+            @Value("${chat.cache.near-duplicate.max-entries-per-mode:2000}") int nearDuplicateMaxEntriesPerMode,
+            @Value("${chat.cache.disabled-modes:}") String disabledModes,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.nearDuplicateEnabled = nearDuplicateEnabled;
+        this.nearDuplicateMaxDistance = nearDuplicateMaxDistance;
+        this.nearDuplicateMinLength = nearDuplicateMinLength;
+        this.nearDuplicateMaxEntriesPerMode = nearDuplicateMaxEntriesPerMode;
+        this.disabledModes = Arrays.stream(disabledModes.split(","))
+                .map(String::trim)
+                .filter(mode -> !mode.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        for (String mode : PromptTemplates.MODES) {
+            requestCounters.put(mode, new RequestCounters(
+                    requestCounter("l1", "hit", mode, meterRegistry),
+                    requestCounter("l1", "miss", mode, meterRegistry),
+                    requestCounter("l2", "hit", mode, meterRegistry),
+                    requestCounter("l2", "miss", mode, meterRegistry)));
+        }
+
+        // 접근 순서 기반 LinkedHashMap으로 LRU 구현
+        this.exactEntries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > ChatResponseCache.this.maxSize;
+            }
+        };
+
+        Gauge.builder("chat.cache.size", this, ChatResponseCache::exactSize)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+    }
+
+    public Optional<String> get(String mode, String userMessage, ConversationWindow conversationWindow) {
+        if (!isCacheable(mode, userMessage)) {
+            return Optional.empty();
+        }
+
+        String normalized = normalize(userMessage);
+        String key = exactKey(mode, normalized, conversationWindow);
+        long now = System.currentTimeMillis();
+
+        synchronized (exactEntries) {
+            CacheEntry entry = exactEntries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() > now) {
+                    countersFor(mode).l1Hit().increment();
+                    return Optional.of(entry.response());
+                }
+                exactEntries.remove(key);
+            }
+        }
+        countersFor(mode).l1Miss().increment();
+
+        if (!useNearDuplicate(normalized, conversationWindow)) {
+            return Optional.empty();
+        }
+
+        long fingerprint = SimHash.of(normalized);
+        synchronized (nearDuplicateEntries) {
+            Deque<NearDuplicateEntry> entries = nearDuplicateEntries.get(mode);
+            if (entries != null) {
+                // 모드당 항목 수가 제한되어 있으므로 선형 탐색으로 충분합니다.
+                Iterator<NearDuplicateEntry> iterator = entries.iterator();
+                while (iterator.hasNext()) {
+                    NearDuplicateEntry entry = iterator.next();
+                    if (entry.expiresAt() <= now) {
+                        iterator.remove();
+                        continue;
+                    }
+                    if (SimHash.distance(entry.fingerprint(), fingerprint) <= nearDuplicateMaxDistance) {
+                        countersFor(mode).l2Hit().increment();
+                        return Optional.of(entry.response());
+                    }
+                }
+            }
+        }
+        countersFor(mode).l2Miss().increment();
+        return Optional.empty();
+    }
+
+    public void put(String mode, String userMessage, ConversationWindow conversationWindow, String response) {
+        if (!isCacheable(mode, userMessage) || response == null || response.isEmpty()) {
+            return;
+        }
+
+        String normalized = normalize(userMessage);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+
+        synchronized (exactEntries) {
+            exactEntries.put(exactKey(mode, normalized, conversationWindow), new CacheEntry(response, expiresAt));
+        }
+
+        if (useNearDuplicate(normalized, conversationWindow)) {
+            synchronized (nearDuplicateEntries) {
+                Deque<NearDuplicateEntry> entries = nearDuplicateEntries.computeIfAbsent(mode, m -> new ArrayDeque<>());
+                entries.addFirst(new NearDuplicateEntry(SimHash.of(normalized), response, expiresAt));
+                while (entries.size() > nearDuplicateMaxEntriesPerMode) {
+                    entries.removeLast();
+                }
+            }
+        }
+    }
+
+    /**
+     * 메시지 정규화: 유니코드 호환 문자 통일, 소문자화, 문장부호 제거,
+     * 공백 정리, 같은 문자 3번 이상 반복("ㅠㅠㅠㅠ", "ㅋㅋㅋㅋ")은 2번으로 축약
+     */
+    static String normalize(String text) {
+        String nfkc = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder builder = new StringBuilder(nfkc.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < nfkc.length(); i++) {
+            char c = nfkc.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && builder.length() > 0) {
+                    builder.append(' ');
+                }
+                pendingSpace = false;
+                int length = builder.length();
+                if (length >= 2 && builder.charAt(length - 1) == c && builder.charAt(length - 2) == c) {
+                    continue;
+                }
+                builder.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return builder.toString();
+    }
+
+    private boolean isCacheable(String mode, String userMessage) {
+        return enabled && userMessage != null && !userMessage.isBlank() && !disabledModes.contains(mode);
+    }
+
+    private boolean useNearDuplicate(String normalized, ConversationWindow conversationWindow) {
+        return nearDuplicateEnabled
+                && (conversationWindow == null || conversationWindow.isEmpty())
+                && normalized.length() >= nearDuplicateMinLength;
+    }
+
+    private String exactKey(String mode, String normalized, ConversationWindow conversationWindow) {
+        return mode + '\u0001' + normalized + '\u0001' + historyFingerprint(conversationWindow);
+    }
+
+    // 히스토리(요약 포함) 전체를 키에 넣지 않고 64비트 지문으로 축약
+    private static String historyFingerprint(ConversationWindow conversationWindow) {
+        if (conversationWindow == null || conversationWindow.isEmpty()) {
+            return "-";
+        }
+        long h = 0xcbf29ce484222325L;
+        h = fnv(h, conversationWindow.getSummary());
+        if (conversationWindow.getTurns() != null) {
+            for (ConversationPair pair : conversationWindow.getTurns()) {
+                h = fnv(h, pair.getUserMessage());
+                h = fnv(h, pair.getBotResponse());
+            }
+        }
+        return conversationWindow.turnCount() + ":" + Long.toHexString(h);
+    }
+
+    private static long fnv(long h, String text) {
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                h ^= text.charAt(i);
+                h *= 0x100000001b3L;
+            }
+        }
+        // 필드 경계 구분
+        h ^= 0xff;
+        h *= 0x100000001b3L;
+        return h;
+    }
+
+    private int exactSize() {
+        synchronized (exactEntries) {
+            return exactEntries.size();
+        }
+    }
+
+    private RequestCounters countersFor(String mode) {
+        return requestCounters.get(PromptTemplates.resolveMode(mode));
+    }
+
+    private static Counter requestCounter(String tier, String result, String mode, MeterRegistry meterRegistry) {
+        return Counter.builder("chat.cache.requests")
+                .tag("tier", tier)
+                .tag("result", result)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private record RequestCounters(Counter l1Hit, Counter l1Miss, Counter l2Hit, Counter l2Miss) {
+    }
+
+    private record CacheEntry(String response, long expiresAt) {
+    }
+
+    private record NearDuplicateEntry(long fingerprint, String response, long expiresAt) {
+    }
+}
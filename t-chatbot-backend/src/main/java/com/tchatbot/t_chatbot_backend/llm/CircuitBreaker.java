@@ -0,0 +1,134 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 회로 차단기 (최근 N회 호출의 실패율 기준)
+ * - CLOSED: 정상. 실패율이 기준을 넘으면 OPEN
+ * - OPEN: open-ms 동안 호출을 막음 (즉시 실패 또는 폴백)
+ * - HALF_OPEN: 시험 호출 1건만 허용. 성공하면 CLOSED, 실패하면 다시 OPEN
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] outcomes;
+    private int index;
+    private int count;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRateThreshold, long openMillis) {
+        this.name = name;
+        this.outcomes = new boolean[windowSize];
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+    }
+
+    // 호출해도 되는지 확인 (HALF_OPEN에서는 시험 호출 자리를 차지함)
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+                System.out.println("회로 차단기 반개방: " + name);
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                close();
+                return;
+            }
+            record(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (count >= minCalls && (double) failures / count >= failureRateThreshold) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (count == outcomes.length) {
+            if (outcomes[index]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        outcomes[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trialInFlight = false;
+        System.err.println("회로 차단기 개방: " + name + " (" + openMillis + "ms)");
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        index = 0;
+        count = 0;
+        failures = 0;
+        System.out.println("회로 차단기 복구: " + name);
+    }
+}
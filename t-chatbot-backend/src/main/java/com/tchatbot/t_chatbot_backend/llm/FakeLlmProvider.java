@@ -0,0 +1,157 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 부하 테스트용 가짜 LLM (fake-llm 프로필)
+ * API 키와 네트워크 없이 서버 자체의 오버헤드만 측정할 수 있도록 합니다.
+ * - 응답 내용: 모델/모드/프롬프트와 seed로 결정되므로 같은 요청에는 항상 같은 응답
+ * - 첫 토큰 지연: 중앙값 latency-median-ms, 분산 latency-sigma인 로그 정규 분포
+ * - 토큰 간격: token-interval-ms (스트리밍은 실제로 토큰 단위로 나눠 전달)
+ * - 오류: error-rate 확률로 error-status 상태 코드의 LlmProviderException
+ */
+@Component
+@Profile("fake-llm")
+public class FakeLlmProvider implements LlmProvider {
+
+    private static final String[] WORDS = {
+            "그건", "원인부터", "보자", "근거가", "뭐야", "현실적으로", "생각하면", "결론은", "간단해",
+            "지금", "할", "수", "있는", "건", "하나야", "일단", "정리해", "보면", "문제는", "선택이고",
+            "감정보다", "사실을", "먼저", "확인해", "그다음", "행동으로", "옮겨", "효율적으로", "가자"
+    };
+
+    private final long latencyMedianMillis;
+    private final double latencySigma;
+    private final long tokenIntervalMillis;
+    private final int responseTokens;
+    private final double errorRate;
+    private final int errorStatus;
+    private final long seed;
+
+    public FakeLlmProvider(
+            @Value("${chat.fake-llm.latency-median-ms:800}") long latencyMedianMillis,
+            @Value("${chat.fake-llm.latency-sigma:0.5}") double latencySigma,
+            @Value("${chat.fake-llm.token-interval-ms:15}") long tokenIntervalMillis,
+            @Value("${chat.fake-llm.response-tokens:40}") int responseTokens,
+            @Value("${chat.fake-llm.error-rate:0.0}") double errorRate,
+            @Value("${chat.fake-llm.error-status:503}") int errorStatus,
+            @Value("${chat.fake-llm.seed:42}") long seed) {
+        this.latencyMedianMillis = latencyMedianMillis;
+        this.latencySigma = latencySigma;
+        this.tokenIntervalMillis = tokenIntervalMillis;
+        this.responseTokens = responseTokens;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.seed = seed;
+        System.out.println("가짜 LLM 사용 중 (fake-llm 프로필) - 실제 Gemini API를 호출하지 않습니다.");
+    }
+
+    @Override
+    public LlmResponse generate(LlmRequest request) {
+        maybeFail(request);
+        List<String> tokens = tokens(request);
+        sleep(firstTokenLatencyMillis() + tokenIntervalMillis * tokens.size());
+        return new LlmResponse(String.join("", tokens), usageOf(request, tokens));
+    }
+
+    @Override
+    public LlmStream openStream(LlmRequest request) {
+        maybeFail(request);
+        List<String> tokens = tokens(request);
+        long firstTokenLatency = firstTokenLatencyMillis();
+
+        return new LlmStream() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<String> source = tokens.iterator();
+                return new Iterator<>() {
+                    private boolean first = true;
+
+                    @Override
+                    public boolean hasNext() {
+                        return source.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!source.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        sleep(first ? firstTokenLatency : tokenIntervalMillis);
+                        first = false;
+                        return source.next();
+                    }
+                };
+            }
+
+            @Override
+            public LlmUsage usage() {
+                return usageOf(request, tokens);
+            }
+
+            @Override
+            public void close() {
+                // 정리할 자원 없음
+            }
+        };
+    }
+
+    private void maybeFail(LlmRequest request) {
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw new LlmProviderException(errorStatus,
+                    "가짜 LLM 오류 (" + errorStatus + ", 모델: " + request.model() + ")", null);
+        }
+    }
+
+    // 같은 요청이면 항상 같은 토큰 목록 (출력 토큰 상한이 있으면 그만큼만)
+    private List<String> tokens(LlmRequest request) {
+        int count = responseTokens;
+        if (request.profile() != null && request.profile().maxOutputTokens() != null) {
+            count = Math.min(count, request.profile().maxOutputTokens());
+        }
+
+        long requestSeed = seed;
+        requestSeed = 31 * requestSeed + String.valueOf(request.model()).hashCode();
+        requestSeed = 31 * requestSeed + String.valueOf(request.mode()).hashCode();
+        requestSeed = 31 * requestSeed + String.valueOf(request.prompt()).hashCode();
+        Random random = new Random(requestSeed);
+
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            tokens.add(i == 0 ? word : " " + word);
+        }
+        return tokens;
+    }
+
+    // 입력은 추정치, 출력은 생성한 토큰 수, thinking은 없음
+    private static LlmUsage usageOf(LlmRequest request, List<String> tokens) {
+        return new LlmUsage(TokenEstimator.estimate(request.prompt()), tokens.size(), 0);
+    }
+
+    private long firstTokenLatencyMillis() {
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(latencyMedianMillis * Math.exp(latencySigma * gaussian));
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("가짜 LLM 호출이 중단되었습니다.", e);
+        }
+    }
+}
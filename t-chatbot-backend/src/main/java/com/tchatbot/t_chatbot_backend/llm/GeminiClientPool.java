@@ -0,0 +1,251 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.google.genai.Client;
+import com.tchatbot.t_chatbot_backend.ratelimit.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API 키별 Gemini 클라이언트 풀
+ * 키(프로젝트)마다 요청 한도가 따로 있으므로, 키를 여러 개 등록하면 그만큼 처리량을 늘릴 수 있습니다.
+ * - 키마다 분당 요청 수 토큰 버킷과 상태(진행 중인 요청 수, 제외 시각)를 둡니다.
+ * - 요청은 제외되지 않은 키 중 진행 중인 요청이 가장 적은 키로 보냅니다.
+ * - 429를 받은 키는 잠시 제외하며, 연속으로 받을수록 제외 시간을 두 배씩 늘립니다(최대 max-eject-ms).
+ * - 인증 실패(401/403, 폐기된 키 등)를 받은 키는 바로 max-eject-ms 동안 제외합니다.
+ * - 5xx와 네트워크 오류는 연속 failure-threshold회가 되면 제외하고, 이후 연속 실패마다 두 배씩 늘립니다.
+ * 사용 가능한 키가 없으면 429 LlmProviderException을 던져 재시도 정책에 맡깁니다.
+ * 지표의 키 이름은 key-0, key-1 ... (API 키 값은 기록하지 않음)
+ */
+public class GeminiClientPool {
+
+    private final List<PooledClient> clients;
+    private final long ejectNanos;
+    private final long maxEjectNanos;
+    private final int failureThreshold;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public GeminiClientPool(List<Client> clients, int requestsPerMinute, long ejectMillis, long maxEjectMillis,
+                            int failureThreshold, MeterRegistry meterRegistry) {
+        if (clients.isEmpty()) {
+            throw new IllegalArgumentException("Gemini 클라이언트가 하나 이상 필요합니다.");
+        }
+        this.ejectNanos = TimeUnit.MILLISECONDS.toNanos(ejectMillis);
+        this.maxEjectNanos = TimeUnit.MILLISECONDS.toNanos(maxEjectMillis);
+        this.failureThreshold = Math.max(1, failureThreshold);
+
+        List<PooledClient> pooled = new ArrayList<>();
+        long now = System.nanoTime();
+        for (int i = 0; i < clients.size(); i++) {
+            String id = "key-" + i;
+            TokenBucket bucket = requestsPerMinute > 0
+                    ? new TokenBucket(requestsPerMinute, requestsPerMinute / 60.0, now)
+                    : null;
+            PooledClient client = new PooledClient(id, clients.get(i), bucket,
+                    Counter.builder("chat.llm.keys.rate-limited").tag("key", id).register(meterRegistry),
+                    failureCounter(meterRegistry, id, "auth"),
+                    failureCounter(meterRegistry, id, "server"),
+                    failureCounter(meterRegistry, id, "network"));
+            Gauge.builder("chat.llm.keys.in-flight", client, c -> c.inFlight.get())
+                    .tag("key", id)
+                    .register(meterRegistry);
+            Gauge.builder("chat.llm.keys.ejected", client, c -> c.isEjected(System.nanoTime()) ? 1 : 0)
+                    .tag("key", id)
+                    .register(meterRegistry);
+            pooled.add(client);
+        }
+        this.clients = List.copyOf(pooled);
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String id, String reason) {
+        return Counter.builder("chat.llm.keys.failures")
+                .description("키 상태에 반영한 Gemini 호출 실패 수 (429 제외)")
+                .tag("key", id)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public List<PooledClient> clients() {
+        return clients;
+    }
+
+    /**
+     * 이번 요청에 사용할 키를 고름 (반드시 close() 해야 함)
+     * 진행 중인 요청이 적은 키부터 버킷을 확인하며, 같으면 돌아가며 고릅니다.
+     */
+    public Lease lease() {
+        long now = System.nanoTime();
+        int size = clients.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+
+        boolean[] tried = new boolean[size];
+        for (int attempt = 0; attempt < size; attempt++) {
+            PooledClient best = null;
+            int bestIndex = -1;
+            for (int offset = 0; offset < size; offset++) {
+                int index = (start + offset) % size;
+                PooledClient candidate = clients.get(index);
+                if (tried[index] || candidate.isEjected(now)) {
+                    continue;
+                }
+                if (best == null || candidate.inFlight.get() < best.inFlight.get()) {
+                    best = candidate;
+                    bestIndex = index;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            tried[bestIndex] = true;
+            if (best.bucket == null || best.bucket.tryAcquire(1, now).allowed()) {
+                best.inFlight.incrementAndGet();
+                return new Lease(best);
+            }
+        }
+        throw new LlmProviderException(429, "사용 가능한 Gemini API 키가 없습니다 (모든 키가 한도에 도달).", null);
+    }
+
+    /**
+     * 키 하나 (클라이언트, 버킷, 상태)
+     */
+    public static final class PooledClient {
+
+        private final String id;
+        private final Client client;
+        private final TokenBucket bucket;
+        private final Counter rateLimitedCounter;
+        private final Counter authFailureCounter;
+        private final Counter serverErrorCounter;
+        private final Counter networkErrorCounter;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveRateLimits = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntil;
+
+        private PooledClient(String id, Client client, TokenBucket bucket, Counter rateLimitedCounter,
+                             Counter authFailureCounter, Counter serverErrorCounter, Counter networkErrorCounter) {
+            this.id = id;
+            this.client = client;
+            this.bucket = bucket;
+            this.rateLimitedCounter = rateLimitedCounter;
+            this.authFailureCounter = authFailureCounter;
+            this.serverErrorCounter = serverErrorCounter;
+            this.networkErrorCounter = networkErrorCounter;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public Client client() {
+            return client;
+        }
+
+        private boolean isEjected(long now) {
+            return ejectedUntil - now > 0;
+        }
+    }
+
+    /**
+     * 요청 하나가 사용 중인 키
+     * 정상 응답이면 onSuccess, 실패하면 onFailure를 호출하고 close()로 반납합니다.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final PooledClient pooled;
+        private boolean closed;
+
+        private Lease(PooledClient pooled) {
+            this.pooled = pooled;
+        }
+
+        public String keyId() {
+            return pooled.id;
+        }
+
+        public Client client() {
+            return pooled.client;
+        }
+
+        public void onSuccess() {
+            pooled.consecutiveRateLimits.set(0);
+            pooled.consecutiveFailures.set(0);
+        }
+
+        /**
+         * 호출 실패를 키 상태에 반영
+         * 잘못된 요청(그 밖의 4xx)이나 취소된 호출은 키 문제가 아니므로 반영하지 않습니다.
+         */
+        public void onFailure(Throwable e) {
+            if (e instanceof LlmProviderException providerError) {
+                int status = providerError.getStatusCode();
+                if (status == 429) {
+                    onRateLimited();
+                } else if (status == 401 || status == 403) {
+                    pooled.authFailureCounter.increment();
+                    eject(maxEjectNanos, "인증 실패(" + status + ")");
+                } else if (status >= 500) {
+                    onUnhealthy(pooled.serverErrorCounter, "서버 오류(" + status + ")");
+                }
+            } else if (isNetworkError(e)) {
+                onUnhealthy(pooled.networkErrorCounter, "네트워크 오류");
+            }
+        }
+
+        // 연속 횟수만큼 제외 시간을 두 배씩 늘림
+        private void onRateLimited() {
+            int consecutive = pooled.consecutiveRateLimits.incrementAndGet();
+            pooled.rateLimitedCounter.increment();
+            eject(Math.min(maxEjectNanos, ejectNanos << Math.min(consecutive - 1, 20)), "한도 초과");
+        }
+
+        // 일시적인 장애일 수 있으므로 연속 failure-threshold회부터 제외
+        private void onUnhealthy(Counter counter, String reason) {
+            counter.increment();
+            int consecutive = pooled.consecutiveFailures.incrementAndGet();
+            if (consecutive >= failureThreshold) {
+                eject(Math.min(maxEjectNanos, ejectNanos << Math.min(consecutive - failureThreshold, 20)),
+                        reason + " 연속 " + consecutive + "회");
+            }
+        }
+
+        private void eject(long duration, String reason) {
+            pooled.ejectedUntil = System.nanoTime() + duration;
+            System.err.println("Gemini API 키 " + pooled.id + " " + reason + "로 "
+                    + TimeUnit.NANOSECONDS.toSeconds(duration) + "초 동안 제외");
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pooled.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // 원인에 IOException이 있으면 네트워크 오류 (호출이 취소되어 인터럽트된 경우는 제외)
+    private static boolean isNetworkError(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException
+                    || (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException))) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.google.genai.types.CachedContent;
+import com.google.genai.types.CreateCachedContentConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 시스템 프롬프트용 Gemini 컨텍스트 캐시
+ * 모드별 시스템 프롬프트를 cachedContent로 등록해 두면, 매 요청마다
+ * 같은 접두부를 다시 처리/과금하지 않습니다.
+ * 캐시는 갱신 주기보다 조금 긴 TTL로 만들고, 새 캐시로 바꾼 뒤 이전 캐시는 바로 삭제하여
+ * 갱신 주기를 늘려도 만료된 캐시를 쓰지 않고, 같은 모드의 캐시를 두 개씩 유지하지 않습니다.
+ * 모델의 최소 토큰 수에 못 미치는 등 등록에 실패한 모드는 systemInstruction을 그대로 사용합니다.
+ * 캐시는 API 키(프로젝트)에 속하므로 키 풀의 키마다 따로 등록합니다.
+ */
+@Component
+@Profile("!fake-llm")
+public class GeminiContextCache {
+
+    private final GeminiClientPool clientPool;
+    private final PromptTemplates promptTemplates;
+    private static final Duration TTL_GRACE = Duration.ofMinutes(10);
+
+    private final boolean enabled;
+    private final String model;
+    private final Duration ttl;
+
+    // 키 ID + 모드 -> 캐시 이름
+    private final Map<String, String> cacheNames = new ConcurrentHashMap<>();
+
+    public GeminiContextCache(GeminiClientPool clientPool, PromptTemplates promptTemplates,
+                              @Value("${chat.prompt.context-cache.enabled:false}") boolean enabled,
+                              @Value("${gemini.model:gemini-2.5-flash}") String model,
+                              @Value("${chat.prompt.context-cache.refresh-ms:3000000}") long refreshMs) {
+        this.clientPool = clientPool;
+        this.promptTemplates = promptTemplates;
+        this.enabled = enabled;
+        this.model = model;
+        // 갱신이 늦어지거나 실패해도 다음 갱신까지는 살아 있도록 여유를 둠
+        this.ttl = Duration.ofMillis(refreshMs).plus(TTL_GRACE);
+    }
+
+    public String model() {
+        return model;
+    }
+
+    public Optional<String> cachedContentName(String keyId, String mode) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cacheNames.get(cacheKey(keyId, PromptTemplates.resolveMode(mode))));
+    }
+
+    // 서버에서 캐시가 만료/삭제된 경우 다음 갱신 전까지 사용하지 않음
+    // 그 사이 새 캐시로 바뀌었으면 새 캐시는 그대로 둠
+    public void invalidate(String keyId, String mode, String cacheName) {
+        cacheNames.remove(cacheKey(keyId, PromptTemplates.resolveMode(mode)), cacheName);
+    }
+
+    private static String cacheKey(String keyId, String mode) {
+        return keyId + ":" + mode;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${chat.prompt.context-cache.refresh-ms:3000000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        for (GeminiClientPool.PooledClient client : clientPool.clients()) {
+            for (String mode : PromptTemplates.MODES) {
+                String key = cacheKey(client.id(), mode);
+                try {
+                    CachedContent cachedContent = client.client().caches.create(model,
+                            CreateCachedContentConfig.builder()
+                                    .displayName("t-chatbot-" + mode)
+                                    .systemInstruction(promptTemplates.systemInstruction(mode))
+                                    .ttl(ttl)
+                                    .build());
+                    Optional<String> name = cachedContent.name();
+                    if (name.isPresent()) {
+                        String previous = cacheNames.put(key, name.get());
+                        System.out.println("컨텍스트 캐시 등록 (" + client.id() + ", 모드: " + mode + "): " + name.get());
+                        if (previous != null) {
+                            delete(client, previous);
+                        }
+                    }
+                } catch (Exception e) {
+                    // 이전 캐시는 TTL까지 유효하므로 그대로 사용 (만료되면 요청 실패 시 무효화됨)
+                    System.err.println("컨텍스트 캐시 등록 실패 (" + client.id() + ", 모드: " + mode + "): "
+                            + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // 교체된 캐시 삭제 (실패해도 TTL이 지나면 서버에서 제거됨)
+    private static void delete(GeminiClientPool.PooledClient client, String cacheName) {
+        try {
+            client.client().caches.delete(cacheName, null);
+        } catch (Exception e) {
+            System.err.println("이전 컨텍스트 캐시 삭제 실패 (" + client.id() + "): " + e.getMessage());
+        }
+    }
+}
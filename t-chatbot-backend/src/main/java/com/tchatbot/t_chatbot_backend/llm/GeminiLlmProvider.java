@@ -0,0 +1,234 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.google.genai.ResponseStream;
+import com.google.genai.errors.ApiException;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.ThinkingConfig;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Gemini API 구현
+ * 모드별 시스템 프롬프트(systemInstruction 또는 컨텍스트 캐시)와 생성 프로필을 요청 설정으로 변환합니다.
+ * 호출마다 키 풀에서 키를 하나 빌려 쓰고, 429를 받으면 그 키를 잠시 제외하도록 알립니다.
+ */
+@Component
+@Profile("!fake-llm")
+public class GeminiLlmProvider implements LlmProvider {
+
+    private final GeminiClientPool clientPool;
+    private final PromptTemplates promptTemplates;
+    private final GeminiContextCache contextCache;
+
+    public GeminiLlmProvider(GeminiClientPool clientPool, PromptTemplates promptTemplates,
+                             GeminiContextCache contextCache) {
+        this.clientPool = clientPool;
+        this.promptTemplates = promptTemplates;
+        this.contextCache = contextCache;
+    }
+
+    // 캐시된 컨텍스트가 서버에 없으면(만료/삭제) 캐시를 무효화하고 systemInstruction으로 한 번 더 시도
+    // 그 밖의 오류(429, 5xx, 시간 초과, 네트워크)는 캐시 문제가 아니므로 바로 실패시켜 재시도 정책에 맡김
+    @Override
+    public LlmResponse generate(LlmRequest request) {
+        try (GeminiClientPool.Lease lease = clientPool.lease()) {
+            Optional<String> cachedContent = cachedContentFor(lease, request);
+            try {
+                return generateContent(lease, request, cachedContent);
+            } catch (RuntimeException e) {
+                if (cachedContent.isEmpty() || !isCacheMissing(e)) {
+                    throw translate(lease, e);
+                }
+                System.err.println("컨텍스트 캐시 사용 실패, systemInstruction으로 재시도: " + e.getMessage());
+                contextCache.invalidate(lease.keyId(), request.mode(), cachedContent.get());
+                try {
+                    return generateContent(lease, request, Optional.empty());
+                } catch (RuntimeException retryError) {
+                    throw translate(lease, retryError);
+                }
+            }
+        }
+    }
+
+    // 키는 스트림을 닫을 때 반납
+    @Override
+    public LlmStream openStream(LlmRequest request) {
+        GeminiClientPool.Lease lease = clientPool.lease();
+        Optional<String> cachedContent = cachedContentFor(lease, request);
+        ResponseStream<GenerateContentResponse> stream;
+        try {
+            stream = lease.client().models.generateContentStream(request.model(), request.prompt(),
+                    generationConfig(request, cachedContent));
+        } catch (RuntimeException e) {
+            // 캐시가 만료/삭제된 경우 다음 요청부터는 systemInstruction 사용
+            if (cachedContent.isPresent() && isCacheMissing(e)) {
+                contextCache.invalidate(lease.keyId(), request.mode(), cachedContent.get());
+            }
+            RuntimeException translated = translate(lease, e);
+            lease.close();
+            throw translated;
+        }
+        lease.onSuccess();
+        return new GeminiStream(stream, lease);
+    }
+
+    private LlmResponse generateContent(GeminiClientPool.Lease lease, LlmRequest request,
+                                        Optional<String> cachedContent) {
+        GenerateContentResponse response = lease.client().models.generateContent(request.model(), request.prompt(),
+                generationConfig(request, cachedContent));
+        lease.onSuccess();
+        return new LlmResponse(response.text(), usageOf(response).orElse(null));
+    }
+
+    // 입력(프롬프트+시스템 지시), 출력, thinking 토큰 수
+    private static Optional<LlmUsage> usageOf(GenerateContentResponse response) {
+        return response.usageMetadata().map(metadata -> new LlmUsage(
+                metadata.promptTokenCount().orElse(null),
+                metadata.candidatesTokenCount().orElse(null),
+                metadata.thoughtsTokenCount().orElse(null)));
+    }
+
+    // 컨텍스트 캐시는 한 모델용으로 만들어지므로 다른 모델(프로필/라우터/폴백)에는 사용하지 않음
+    // 캐시는 키(프로젝트)마다 따로 등록되므로 빌린 키의 캐시를 사용
+    private Optional<String> cachedContentFor(GeminiClientPool.Lease lease, LlmRequest request) {
+        if (request.mode() == null || !request.model().equals(contextCache.model())) {
+            return Optional.empty();
+        }
+        return contextCache.cachedContentName(lease.keyId(), request.mode());
+    }
+
+    /**
+     * 모드별 생성 설정
+     * 컨텍스트 캐시가 등록되어 있으면 cachedContent를, 아니면 미리 만들어 둔 systemInstruction을 사용하고,
+     * 프로필에 지정된 출력 토큰 상한/temperature/thinking 예산을 적용합니다.
+     */
+    private GenerateContentConfig generationConfig(LlmRequest request, Optional<String> cachedContent) {
+        if (request.mode() == null && request.profile() == null) {
+            return null;
+        }
+
+        GenerateContentConfig.Builder builder = GenerateContentConfig.builder();
+        if (cachedContent.isPresent()) {
+            builder.cachedContent(cachedContent.get());
+        } else if (request.mode() != null) {
+            builder.systemInstruction(promptTemplates.systemInstruction(request.mode()));
+        }
+
+        GenerationProfile profile = request.profile();
+        if (profile != null) {
+            if (profile.maxOutputTokens() != null) {
+                builder.maxOutputTokens(profile.maxOutputTokens());
+            }
+            if (profile.temperature() != null) {
+                builder.temperature(profile.temperature());
+            }
+            if (profile.thinkingBudget() != null) {
+                builder.thinkingConfig(ThinkingConfig.builder()
+                        .thinkingBudget(profile.thinkingBudget())
+                        .build());
+            }
+        }
+        return builder.build();
+    }
+
+    // 캐시를 찾을 수 없거나 만료된 경우 (cachedContent를 가리키는 4xx, 한도 초과 429 제외)
+    private static boolean isCacheMissing(RuntimeException e) {
+        if (!(e instanceof ApiException apiException)
+                || apiException.code() < 400 || apiException.code() >= 500 || apiException.code() == 429) {
+            return false;
+        }
+        String message = e.getMessage();
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase();
+        return lower.contains("cachedcontent") || lower.contains("cached content");
+    }
+
+    // 재시도 판단을 위해 Gemini 오류를 상태 코드가 담긴 공통 예외로 변환하고 키 상태에 반영
+    // (429, 인증 실패, 5xx, 네트워크 오류가 이어지면 해당 키를 잠시 풀에서 제외)
+    private static RuntimeException translate(GeminiClientPool.Lease lease, RuntimeException e) {
+        RuntimeException translated = e;
+        if (e instanceof ApiException apiException) {
+            // 잘못되거나 폐기된 API 키는 400(API_KEY_INVALID)으로 오므로 인증 실패로 취급
+            int status = apiException.code() == 400 && isInvalidApiKey(apiException) ? 401 : apiException.code();
+            translated = new LlmProviderException(status, e.getMessage(), e);
+        }
+        lease.onFailure(translated);
+        return translated;
+    }
+
+    private static boolean isInvalidApiKey(ApiException e) {
+        String message = e.getMessage();
+        return message != null && (message.contains("API_KEY_INVALID") || message.contains("API key not valid"));
+    }
+
+    private static final class GeminiStream implements LlmStream {
+
+        private final ResponseStream<GenerateContentResponse> stream;
+        private final GeminiClientPool.Lease lease;
+        private LlmUsage usage;
+
+        private GeminiStream(ResponseStream<GenerateContentResponse> stream, GeminiClientPool.Lease lease) {
+            this.stream = stream;
+            this.lease = lease;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            Iterator<GenerateContentResponse> chunks = stream.iterator();
+            return new Iterator<>() {
+                private String next;
+
+                // 빈 청크(메타데이터만 있는 경우 등)는 건너뜀
+                // 사용량은 누적값이 오므로 마지막으로 받은 값을 사용
+                // 전송 중 끊긴 오류도 키 상태에 반영
+                @Override
+                public boolean hasNext() {
+                    try {
+                        while (next == null && chunks.hasNext()) {
+                            GenerateContentResponse chunk = chunks.next();
+                            usageOf(chunk).ifPresent(chunkUsage -> usage = chunkUsage);
+                            String text = chunk.text();
+                            if (text != null && !text.isEmpty()) {
+                                next = text;
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        throw translate(lease, e);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    String text = next;
+                    next = null;
+                    return text;
+                }
+            };
+        }
+
+        @Override
+        public LlmUsage usage() {
+            return usage;
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } finally {
+                lease.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Gemini 호출 안정화 계층
+ * - 데드라인: 재시도를 포함한 전체 호출 시간(deadline-ms)과 시도당 시간(attempt-timeout-ms) 제한
+ * - 재시도: 429/5xx/시간 초과/네트워크 오류만, 지터를 섞은 지수 백오프로 제한된 횟수만큼
+ * - hedge: 응답이 최근 p95보다 늦으면 같은 요청을 한 번 더 보내 먼저 온 응답 사용 (선택 사항)
+ *   추가 요청도 동시 호출 자리를 하나 차지하며, 빈 자리가 없으면 hedge하지 않습니다.
+ * - 회로 차단: 실패율이 높으면 해당 모델 호출을 잠시 멈추고, 그동안 폴백 모델(가벼운 모델)로 응답
+ *
+ * 회로 차단기와 응답 시간 통계는 모델별로 따로 관리합니다 (모드별 프로필/라우터로 모델이 달라질 수 있음).
+ * 호출 함수는 실제로 사용할 모델 이름을 받아 요청을 보냅니다.
+ */
+@Component
+public class GeminiResilience {
+
+    private final String fallbackModel;
+    private final long deadlineMillis;
+    private final long attemptTimeoutMillis;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final int hedgeMinSamples;
+    private final int circuitWindowSize;
+    private final int circuitMinCalls;
+    private final double circuitFailureRate;
+    private final long circuitOpenMillis;
+
+    private final ExecutorService llmExecutor;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ModelState> modelStates = new ConcurrentHashMap<>();
+
+    private final Counter retryCounter;
+    private final Counter hedgeCounter;
+    private final Counter fallbackCounter;
+
+    public GeminiResilience(
+            @Value("${chat.resilience.fallback-model:gemini-2.5-flash-lite}") String fallbackModel,
+            @Value("${chat.resilience.deadline-ms:30000}") long deadlineMillis,
+            @Value("${chat.resilience.attempt-timeout-ms:20000}") long attemptTimeoutMillis,
+            @Value("${chat.resilience.max-attempts:3}") int maxAttempts,
+            @Value("${chat.resilience.backoff-base-ms:200}") long backoffBaseMillis,
+            @Value("${chat.resilience.backoff-max-ms:2000}") long backoffMaxMillis,
+            @Value("${chat.resilience.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${chat.resilience.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${chat.resilience.hedge.min-samples:20}") int hedgeMinSamples,
+            @Value("${chat.resilience.circuit.window-size:20}") int circuitWindowSize,
+            @Value("${chat.resilience.circuit.min-calls:10}") int circuitMinCalls,
+            @Value("${chat.resilience.circuit.failure-rate:0.5}") double circuitFailureRate,
+            @Value("${chat.resilience.circuit.open-ms:30000}") long circuitOpenMillis,
+            @Qualifier("llmExecutor") ExecutorService llmExecutor,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            MeterRegistry meterRegistry) {
+        this.fallbackModel = fallbackModel;
+        this.deadlineMillis = deadlineMillis;
+        this.attemptTimeoutMillis = attemptTimeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinSamples = hedgeMinSamples;
+        this.circuitWindowSize = circuitWindowSize;
+        this.circuitMinCalls = circuitMinCalls;
+        this.circuitFailureRate = circuitFailureRate;
+        this.circuitOpenMillis = circuitOpenMillis;
+        this.llmExecutor = llmExecutor;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.meterRegistry = meterRegistry;
+
+        this.retryCounter = Counter.builder("chat.llm.retries").register(meterRegistry);
+        this.hedgeCounter = Counter.builder("chat.llm.hedges").register(meterRegistry);
+        this.fallbackCounter = Counter.builder("chat.llm.fallbacks").register(meterRegistry);
+    }
+
+    /**
+     * 데드라인, 재시도, hedge, 회로 차단을 모두 적용한 호출
+     */
+    public <T> T call(String model, Function<String, T> attempt) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        ModelState state = state(model);
+        if (!state.circuitBreaker().tryAcquire()) {
+            return callFallback(model, attempt, deadline);
+        }
+        try {
+            T result = callWithRetries(state, attempt, deadline);
+            state.circuitBreaker().onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            recordOutcome(state, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 회로 차단과 폴백만 적용한 단일 호출 (스트림 시작처럼 재시도/hedge를 할 수 없는 경우)
+     * 호출 함수는 현재 스레드에서 실행됩니다.
+     */
+    public <T> T callOnce(String model, Function<String, T> attempt) {
+        ModelState state = state(model);
+        if (!state.circuitBreaker().tryAcquire()) {
+            if (!hasFallback(model)) {
+                throw circuitOpen();
+            }
+            fallbackCounter.increment();
+            return attempt.apply(fallbackModel);
+        }
+        try {
+            T result = attempt.apply(model);
+            state.circuitBreaker().onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            recordOutcome(state, e);
+            throw e;
+        }
+    }
+
+    // 400 등 요청 자체의 문제는 Gemini가 정상 응답한 것이므로 성공으로 기록
+    private void recordOutcome(ModelState state, RuntimeException e) {
+        if (isRetryable(e)) {
+            state.circuitBreaker().onFailure();
+        } else {
+            state.circuitBreaker().onSuccess();
+        }
+    }
+
+    private <T> T callFallback(String model, Function<String, T> attempt, long deadline) {
+        if (!hasFallback(model)) {
+            throw circuitOpen();
+        }
+        fallbackCounter.increment();
+        System.out.println("회로 차단 중 - 폴백 모델 사용: " + fallbackModel);
+        return attemptWithTimeout(attempt, state(fallbackModel), deadline, false);
+    }
+
+    private <T> T callWithRetries(ModelState state, Function<String, T> attempt, long deadline) {
+        for (int attemptNo = 1; ; attemptNo++) {
+            try {
+                return attemptWithTimeout(attempt, state, deadline, hedgeEnabled);
+            } catch (RuntimeException e) {
+                if (attemptNo >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+                long backoffMillis = backoffMillis(attemptNo);
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) >= deadline) {
+                    throw e;
+                }
+                retryCounter.increment();
+                System.out.println("Gemini 호출 재시도 (" + attemptNo + "/" + (maxAttempts - 1) + ", "
+                        + backoffMillis + "ms 후): " + e.getMessage());
+                sleep(backoffMillis);
+            }
+        }
+    }
+
+    // 시도 하나: 시도당 제한 시간과 남은 데드라인 중 짧은 쪽까지 기다림
+    private <T> T attemptWithTimeout(Function<String, T> attempt, ModelState state, long deadline, boolean hedge) {
+        String model = state.model();
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        long timeoutMillis = Math.min(attemptTimeoutMillis, remainingMillis);
+        if (timeoutMillis <= 0) {
+            throw new RuntimeException("Gemini 응답 시간 초과 (데드라인)", new TimeoutException());
+        }
+
+        long startedAt = System.nanoTime();
+        CompletableFuture<T> primary = submit(attempt, model);
+        CompletableFuture<T> hedged = null;
+        try {
+            long hedgeDelayMillis = hedge ? state.latencies().percentile(hedgePercentile) : -1;
+            T result;
+            if (hedgeDelayMillis >= 0 && hedgeDelayMillis < timeoutMillis) {
+                try {
+                    result = primary.get(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException slow) {
+                    // p95보다 늦음 - 빈 자리가 있으면 같은 요청을 한 번 더 보내 먼저 성공한 쪽을 사용
+                    AdaptiveConcurrencyLimiter.Permit hedgePermit = concurrencyLimiter.tryAcquire();
+                    if (hedgePermit == null) {
+                        result = primary.get(timeoutMillis - hedgeDelayMillis, TimeUnit.MILLISECONDS);
+                    } else {
+                        hedgeCounter.increment();
+                        hedged = submit(attempt, model);
+                        hedged.whenComplete((value, error) -> hedgePermit.close());
+                        result = firstSuccessful(primary, hedged)
+                                .get(timeoutMillis - hedgeDelayMillis, TimeUnit.MILLISECONDS);
+                    }
+                }
+            } else {
+                result = primary.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            state.latencies().record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            return result;
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Gemini 응답 시간 초과 (" + timeoutMillis + "ms)", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Gemini 호출 대기 중 중단되었습니다.", e);
+        } finally {
+            // 끝나지 않은 시도(시간 초과, hedge에서 진 쪽)는 취소
+            primary.cancel(true);
+            if (hedged != null) {
+                hedged.cancel(true);
+            }
+        }
+    }
+
+    // 취소 시 작업 스레드도 인터럽트 (시간 초과/hedge에서 진 시도가 계속 실행되지 않도록)
+    private <T> CompletableFuture<T> submit(Function<String, T> attempt, String model) {
+        return CancellableTasks.supplyAsync(() -> attempt.apply(model), llmExecutor);
+    }
+
+    // 둘 중 먼저 성공한 결과. 둘 다 실패하면 나중 실패로 완료
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<T, Throwable> handler = (value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error);
+            }
+        };
+        first.whenComplete(handler);
+        second.whenComplete(handler);
+        return result;
+    }
+
+    // 재시도할 가치가 있는 오류: 429, 5xx, 시간 초과, 네트워크 오류
+    static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof LlmProviderException providerException) {
+                return providerException.isRetryable();
+            }
+            if (cause instanceof TimeoutException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // full jitter: 0 ~ min(max, base * 2^(n-1)) 사이에서 무작위
+    private long backoffMillis(int attemptNo) {
+        long ceiling = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attemptNo - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Gemini 재시도 대기 중 중단되었습니다.", e);
+        }
+    }
+
+    private boolean hasFallback(String model) {
+        return fallbackModel != null && !fallbackModel.isBlank() && !fallbackModel.equals(model);
+    }
+
+    // 처음 쓰는 모델이면 회로 차단기/응답 시간 통계와 지표를 만듦
+    private ModelState state(String model) {
+        return modelStates.computeIfAbsent(model, m -> {
+            ModelState state = new ModelState(m,
+                    new CircuitBreaker(m, circuitWindowSize, circuitMinCalls, circuitFailureRate, circuitOpenMillis),
+                    new LatencyPercentiles(200, hedgeMinSamples));
+            Gauge.builder("chat.llm.latency.p95", state.latencies(), l -> l.percentile(0.95))
+                    .tag("model", m)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("chat.llm.circuit.state", state.circuitBreaker(), b -> b.state().ordinal())
+                    .tag("model", m)
+                    .description("0=closed, 1=open, 2=half-open")
+                    .register(meterRegistry);
+            return state;
+        });
+    }
+
+    private RuntimeException circuitOpen() {
+        return new RuntimeException("AI 모델이 일시적으로 응답하지 않아 요청을 중단했습니다. (회로 차단)");
+    }
+
+    private record ModelState(String model, CircuitBreaker circuitBreaker, LatencyPercentiles latencies) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * 모드별 생성 설정
+ * null인 값은 Gemini 기본값을 사용합니다.
+ * thinkingBudget: 0이면 thinking 비활성화, -1이면 모델이 스스로 결정
+ */
+public record GenerationProfile(String model, Integer maxOutputTokens, Float temperature, Integer thinkingBudget) {
+
+    public GenerationProfile withModel(String model) {
+        return new GenerationProfile(model, maxOutputTokens, temperature, thinkingBudget);
+    }
+}
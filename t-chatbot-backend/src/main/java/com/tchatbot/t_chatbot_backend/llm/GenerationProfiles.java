@@ -0,0 +1,150 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.tchatbot.t_chatbot_backend.dto.ConversationWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 모드별 생성 프로필 (모델, 최대 출력 토큰, temperature, thinking 예산)
+ * chat.profiles.location 파일에서 읽으며, 파일이 바뀌면 재시작 없이 다시 읽습니다.
+ *
+ * 파일 형식 (mode.key=value, 비어 있는 값은 default 프로필을 따름):
+ *   default.model=gemini-2.5-flash
+ *   default.max-output-tokens=512
+ *   love.temperature=1.0
+ *   router.enabled=true
+ *   router.max-length=20
+ *   router.model=gemini-2.5-flash-lite
+ *
+ * 라우터: 히스토리가 없는 짧은 첫 질문은 가벼운 모델로 보냅니다.
+ */
+@Component
+public class GenerationProfiles {
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final String defaultModel;
+
+    private volatile Snapshot snapshot;
+    private volatile long loadedLastModified = -1;
+
+    public GenerationProfiles(ResourceLoader resourceLoader,
+                              @Value("${chat.profiles.location:classpath:generation-profiles.properties}") String location,
+                              @Value("${gemini.model:gemini-2.5-flash}") String defaultModel) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.defaultModel = defaultModel;
+        this.snapshot = new Snapshot(Map.of(), new GenerationProfile(defaultModel, null, null, null), false, 0, null);
+        reloadIfChanged();
+    }
+
+    /**
+     * 이번 요청에 사용할 프로필 (라우터 적용)
+     */
+    public GenerationProfile profileFor(String mode, String userMessage, ConversationWindow conversationWindow) {
+        Snapshot current = snapshot;
+        GenerationProfile profile = current.profiles().getOrDefault(PromptTemplates.resolveMode(mode), current.defaults());
+        if (current.routerEnabled()
+                && (conversationWindow == null || conversationWindow.isEmpty())
+                && userMessage != null
+                && userMessage.strip().length() <= current.routerMaxLength()) {
+            return profile.withModel(current.routerModel());
+        }
+        return profile;
+    }
+
+    // 파일 수정 시각이 바뀐 경우에만 다시 읽음 (jar 내부 리소스처럼 시각을 알 수 없으면 시작 시 한 번만)
+    @Scheduled(initialDelayString = "${chat.profiles.reload-interval-ms:10000}",
+            fixedDelayString = "${chat.profiles.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            if (loadedLastModified == -1) {
+                System.out.println("생성 프로필 파일이 없어 기본 설정을 사용합니다: " + location);
+                loadedLastModified = 0;
+            }
+            return;
+        }
+
+        long lastModified;
+        try {
+            lastModified = resource.lastModified();
+        } catch (IOException e) {
+            // 수정 시각을 알 수 없는 리소스 - 처음 한 번만 읽음
+            if (loadedLastModified != -1) {
+                return;
+            }
+            lastModified = 0;
+        }
+        if (lastModified == loadedLastModified) {
+            return;
+        }
+
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            snapshot = parse(properties);
+            loadedLastModified = lastModified;
+            System.out.println("생성 프로필 로드 완료: " + location + " " + snapshot.profiles().keySet());
+        } catch (IOException | IllegalArgumentException e) {
+            // 잘못된 파일은 무시하고 기존 프로필 유지 (같은 파일을 반복해서 읽지 않도록 시각은 기록)
+            loadedLastModified = lastModified;
+            System.err.println("생성 프로필 로드 실패, 기존 설정 유지: " + e.getMessage());
+        }
+    }
+
+    private Snapshot parse(Properties properties) {
+        GenerationProfile defaults = new GenerationProfile(
+                stringValue(properties, "default.model", defaultModel),
+                intValue(properties, "default.max-output-tokens", null),
+                floatValue(properties, "default.temperature", null),
+                intValue(properties, "default.thinking-budget", null));
+
+        Map<String, GenerationProfile> profiles = new HashMap<>();
+        for (String mode : PromptTemplates.MODES) {
+            profiles.put(mode, new GenerationProfile(
+                    stringValue(properties, mode + ".model", defaults.model()),
+                    intValue(properties, mode + ".max-output-tokens", defaults.maxOutputTokens()),
+                    floatValue(properties, mode + ".temperature", defaults.temperature()),
+                    intValue(properties, mode + ".thinking-budget", defaults.thinkingBudget())));
+        }
+
+        boolean routerEnabled = Boolean.parseBoolean(stringValue(properties, "router.enabled", "false"));
+        Integer routerMaxLength = intValue(properties, "router.max-length", 20);
+        String routerModel = stringValue(properties, "router.model", null);
+        if (routerEnabled && routerModel == null) {
+            throw new IllegalArgumentException("router.model이 지정되지 않았습니다.");
+        }
+        return new Snapshot(Map.copyOf(profiles), defaults, routerEnabled, routerMaxLength, routerModel);
+    }
+
+    private static String stringValue(Properties properties, String key, String fallback) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? fallback : value.strip();
+    }
+
+    private static Integer intValue(Properties properties, String key, Integer fallback) {
+        String value = stringValue(properties, key, null);
+        return value == null ? fallback : Integer.valueOf(value);
+    }
+
+    private static Float floatValue(Properties properties, String key, Float fallback) {
+        String value = stringValue(properties, key, null);
+        return value == null ? fallback : Float.valueOf(value);
+    }
+
+    private record Snapshot(Map<String, GenerationProfile> profiles, GenerationProfile defaults,
+                            boolean routerEnabled, int routerMaxLength, String routerModel) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 최근 N건의 응답 시간으로 백분위수를 계산 (hedge 시작 시점 결정용)
+ * 표본 수가 작으므로 조회할 때마다 정렬해도 충분합니다.
+ */
+public class LatencyPercentiles {
+
+    private final long[] samples;
+    private final int minSamples;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int index;
+    private int count;
+
+    public LatencyPercentiles(int windowSize, int minSamples) {
+        this.samples = new long[windowSize];
+        this.minSamples = minSamples;
+    }
+
+    public void record(long latencyMillis) {
+        lock.lock();
+        try {
+            samples[index] = latencyMillis;
+            index = (index + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 표본이 부족하면 -1
+    public long percentile(double p) {
+        long[] sorted;
+        lock.lock();
+        try {
+            if (count < minSamples) {
+                return -1;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+}
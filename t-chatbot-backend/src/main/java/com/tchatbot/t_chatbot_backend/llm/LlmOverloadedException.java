@@ -0,0 +1,18 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * 동시 호출 한도와 대기열이 모두 찬 경우 (503 + Retry-After로 응답)
+ */
+public class LlmOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LlmOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * LLM 호출 SPI
+ * ChatService는 이 인터페이스만 사용하며, 구현은 프로필로 선택합니다.
+ * - GeminiLlmProvider: 실제 Gemini API (기본)
+ * - FakeLlmProvider: 네트워크 없이 동작하는 결정적 가짜 구현 (fake-llm 프로필, 부하 테스트용)
+ *
+ * 구현은 재시도 가능한 업스트림 오류(429, 5xx)를 LlmProviderException으로 던져야
+ * GeminiResilience가 재시도/회로 차단 여부를 판단할 수 있습니다.
+ */
+public interface LlmProvider {
+
+    /**
+     * 전체 응답을 한 번에 생성 (토큰 사용량 포함)
+     */
+    LlmResponse generate(LlmRequest request);
+
+    /**
+     * 스트리밍 응답 시작
+     * 반환된 스트림은 토큰(청크)을 순서대로 돌려주며, 사용 후 반드시 닫아야 합니다.
+     */
+    LlmStream openStream(LlmRequest request);
+}
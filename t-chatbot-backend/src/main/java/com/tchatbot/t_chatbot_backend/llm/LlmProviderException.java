@@ -0,0 +1,23 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * LLM 업스트림 오류 (HTTP 상태 코드 포함)
+ * 429와 5xx는 재시도 대상입니다.
+ */
+public class LlmProviderException extends RuntimeException {
+
+    private final int statusCode;
+
+    public LlmProviderException(int statusCode, String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isRetryable() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,8 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * LLM 요청
+ * mode가 null이면 시스템 프롬프트 없이, profile이 null이면 기본 생성 설정으로 호출합니다 (요약 작업 등).
+ */
+public record LlmRequest(String model, String mode, String prompt, GenerationProfile profile) {
+}
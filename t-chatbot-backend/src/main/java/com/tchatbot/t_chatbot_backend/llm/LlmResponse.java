@@ -0,0 +1,7 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * LLM 응답 (사용량을 알 수 없으면 usage는 null)
+ */
+public record LlmResponse(String text, LlmUsage usage) {
+}
@@ -0,0 +1,15 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * 스트리밍 응답 (비어 있지 않은 토큰만 순서대로 반환)
+ */
+public interface LlmStream extends Iterable<String>, AutoCloseable {
+
+    /**
+     * 토큰 사용량 (스트림을 끝까지 읽은 뒤에 확정, 알 수 없으면 null)
+     */
+    LlmUsage usage();
+
+    @Override
+    void close();
+}
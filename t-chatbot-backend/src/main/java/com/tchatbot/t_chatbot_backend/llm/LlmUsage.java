@@ -0,0 +1,15 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * 호출 1회의 토큰 사용량 (모델이 알려주지 않은 값은 null)
+ */
+public record LlmUsage(Integer promptTokens, Integer outputTokens, Integer thinkingTokens) {
+
+    public long totalTokens() {
+        return valueOf(promptTokens) + valueOf(outputTokens) + valueOf(thinkingTokens);
+    }
+
+    private static long valueOf(Integer tokens) {
+        return tokens != null ? tokens : 0;
+    }
+}
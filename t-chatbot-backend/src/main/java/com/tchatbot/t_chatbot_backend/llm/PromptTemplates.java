@@ -0,0 +1,63 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.google.genai.types.Content;
+import com.google.genai.types.Part;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 모드별 시스템 프롬프트
+ * 시작 시 한 번만 리소스(prompts/{mode}.txt)에서 읽어 불변 객체로 보관하고,
+ * 매 요청마다 문자열을 다시 만들지 않고 systemInstruction으로 그대로 전달합니다.
+ */
+@Component
+public class PromptTemplates {
+
+    public static final String DEFAULT_MODE = "default";
+    public static final List<String> MODES = List.of("default", "love", "tbrainwash");
+
+    private final Map<String, String> systemPrompts;
+    private final Map<String, Content> systemInstructions;
+
+    public PromptTemplates(ResourceLoader resourceLoader,
+                           @Value("${chat.prompt.location:classpath:prompts/}") String location) {
+        Map<String, String> prompts = new HashMap<>();
+        Map<String, Content> instructions = new HashMap<>();
+        for (String mode : MODES) {
+            String prompt = load(resourceLoader.getResource(location + mode + ".txt"));
+            prompts.put(mode, prompt);
+            instructions.put(mode, Content.fromParts(Part.fromText(prompt)));
+        }
+        this.systemPrompts = Map.copyOf(prompts);
+        this.systemInstructions = Map.copyOf(instructions);
+    }
+
+    // 알 수 없는 모드는 기본 모드로 처리
+    public static String resolveMode(String mode) {
+        return mode != null && MODES.contains(mode) ? mode : DEFAULT_MODE;
+    }
+
+    public String systemPrompt(String mode) {
+        return systemPrompts.get(resolveMode(mode));
+    }
+
+    public Content systemInstruction(String mode) {
+        return systemInstructions.get(resolveMode(mode));
+    }
+
+    private static String load(Resource resource) {
+        try {
+            return resource.getContentAsString(StandardCharsets.UTF_8).strip();
+        } catch (IOException e) {
+            throw new IllegalStateException("시스템 프롬프트를 읽을 수 없습니다: " + resource.getDescription(), e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * 64비트 SimHash
+ * 한국어는 띄어쓰기/조사 변화가 많아 단어 대신 문자 2-gram을 특징으로 사용합니다.
+ * 두 문장의 해시 간 해밍 거리가 작을수록 비슷한 문장입니다.
+ */
+public final class SimHash {
+
+    private SimHash() {
+    }
+
+    public static long of(String normalizedText) {
+        String text = normalizedText.replace(" ", "");
+        if (text.isEmpty()) {
+            return 0L;
+        }
+
+        int[] weights = new int[64];
+        if (text.length() == 1) {
+            accumulate(weights, hash(text, 0, 1));
+        } else {
+            for (int i = 0; i + 2 <= text.length(); i++) {
+                accumulate(weights, hash(text, i, i + 2));
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static void accumulate(int[] weights, long featureHash) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((featureHash >>> bit) & 1L) != 0 ? 1 : -1;
+        }
+    }
+
+    // FNV-1a 64비트 + 비트 섞기 (짧은 특징에서도 비트가 고르게 분포하도록)
+    private static long hash(String text, int start, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h ^= text.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
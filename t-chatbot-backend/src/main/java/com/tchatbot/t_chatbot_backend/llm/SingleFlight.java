@@ -0,0 +1,112 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 동일 요청 병합 (single-flight)
+ * 같은 키의 요청이 진행 중이면 새로 호출하지 않고 진행 중인 결과를 함께 기다립니다.
+ * 완료되면 즉시 항목을 제거하므로 캐시처럼 결과를 오래 보관하지 않습니다.
+ *
+ * - 실패: 진행 중이던 모든 대기자에게 같은 예외가 전달됩니다.
+ * - 취소: 대기자 각자가 받은 future만 취소되며, 마지막 대기자까지 취소하면 원 요청도 취소합니다.
+ *   실행 중인 작업까지 멈추려면 loader가 취소 시 작업을 인터럽트하는 future를 반환해야 합니다
+ *   (CancellableTasks.supplyAsync 사용, CompletableFuture.supplyAsync는 인터럽트하지 않음).
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            Call<V> created = new Call<>();
+            Call<V> existing = inFlight.putIfAbsent(key, created);
+
+            if (existing == null) {
+                CompletableFuture<V> waiter = created.attach();
+                CompletableFuture<V> upstream;
+                try {
+                    upstream = loader.get();
+                } catch (Throwable t) {
+                    upstream = CompletableFuture.failedFuture(t);
+                }
+                created.start(upstream);
+                upstream.whenComplete((value, error) -> inFlight.remove(key, created));
+                return waiter;
+            }
+
+            CompletableFuture<V> waiter = existing.attach();
+            if (waiter != null) {
+                return waiter;
+            }
+            // 모든 대기자가 취소해 버려진 요청이면 새로 시작
+            inFlight.remove(key, existing);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final class Call<V> {
+
+        private final List<CompletableFuture<V>> pending = new ArrayList<>();
+        private CompletableFuture<V> upstream;
+        private int waiters;
+        private boolean abandoned;
+
+        synchronized CompletableFuture<V> attach() {
+            if (abandoned) {
+                return null;
+            }
+            waiters++;
+
+            CompletableFuture<V> waiter = new CompletableFuture<>();
+            waiter.whenComplete((value, error) -> {
+                if (waiter.isCancelled()) {
+                    detach();
+                }
+            });
+            if (upstream != null) {
+                forward(upstream, waiter);
+            } else {
+                pending.add(waiter);
+            }
+            return waiter;
+        }
+
+        synchronized void start(CompletableFuture<V> upstream) {
+            this.upstream = upstream;
+            for (CompletableFuture<V> waiter : pending) {
+                forward(upstream, waiter);
+            }
+            pending.clear();
+            if (abandoned) {
+                upstream.cancel(true);
+            }
+        }
+
+        private synchronized void detach() {
+            waiters--;
+            if (waiters == 0 && (upstream == null || !upstream.isDone())) {
+                abandoned = true;
+                if (upstream != null) {
+                    upstream.cancel(true);
+                }
+            }
+        }
+
+        private static <V> void forward(CompletableFuture<V> upstream, CompletableFuture<V> waiter) {
+            upstream.whenComplete((value, error) -> {
+                if (error != null) {
+                    waiter.completeExceptionally(error);
+                } else {
+                    waiter.complete(value);
+                }
+            });
+        }
+    }
+}
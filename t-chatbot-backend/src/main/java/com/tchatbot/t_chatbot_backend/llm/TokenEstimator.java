@@ -0,0 +1,43 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+/**
+ * 로컬 토큰 수 추정기
+ * 정확한 토크나이저 대신 문자 종류별 평균값으로 빠르게 근사합니다.
+ * - 한글/한자/가나: 글자당 약 1토큰
+ * - 영문/숫자: 약 4글자당 1토큰
+ * - 문장부호 등 기타 문자: 약 2글자당 1토큰
+ * 예산을 넘지 않도록 살짝 넉넉하게(올림) 계산합니다.
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+
+        int wide = 0;
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c < 0x80) {
+                if (Character.isLetterOrDigit(c)) {
+                    ascii++;
+                } else {
+                    other++;
+                }
+            } else if (Character.isLetter(c)) {
+                wide++;
+            } else {
+                other++;
+            }
+        }
+        return wide + (ascii + 3) / 4 + (other + 1) / 2;
+    }
+}
@@ -0,0 +1,313 @@
+package com.tchatbot.t_chatbot_backend.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.service.ChatSessionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대화 턴 write-behind 저장
+ * 응답 경로에서는 턴을 저널에 기록하고 대기열에 넣기만 하며(DB 왕복 없음),
+ * 전용 스레드가 대기열에 쌓인 턴을 모아 한 트랜잭션으로 chat_history에 저장하고 세션을 갱신합니다.
+ *
+ * - 대기열은 queue-capacity개로 제한되며, 가득 차면 submit이 false를 반환해 호출자가 바로 저장하도록 합니다.
+ * - DB 연결 끊김 같은 일시적 오류로 실패한 묶음은 버리지 않고 잠시 후 다시 시도합니다.
+ * - 제약 조건 위반 등 데이터 오류로 실패하면 한 건씩 다시 저장하고, 그래도 실패한 턴은
+ *   저널 디렉터리의 dead-letter.log에 남기고 건너뜁니다 (한 턴 때문에 뒤의 턴이 막히지 않도록).
+ * - 재시작 시 저널에 남은 턴을 다시 읽어 저장하며, 이미 저장된 turnId는 건너뜁니다.
+ */
+@Component
+public class ChatTurnWriteBehind {
+
+    private final ChatSessionService chatSessionService;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final Path journalDirectory;
+    private final boolean fsync;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long idleFlushMs;
+    private final long segmentMaxBytes;
+
+    private final LinkedBlockingQueue<QueuedTurn> queue = new LinkedBlockingQueue<>();
+    private Semaphore slots;
+    private TurnJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // 저장되지 않은 턴 (turnId 기준, 들어온 순서)
+    // 대기열에 넣기 전에 추가하고 커밋 또는 dead-letter 후에만 제거하므로, 대기열에서 꺼내 저장하는 동안에도 대화 윈도우에서 보임
+    private final Map<String, JournaledTurn> pending = new LinkedHashMap<>();
+
+    public ChatTurnWriteBehind(ChatSessionService chatSessionService,
+                               ObjectMapper objectMapper,
+                               @Value("${chat.write-behind.enabled:true}") boolean enabled,
+                               @Value("${chat.write-behind.journal-dir:data/turn-journal}") String journalDirectory,
+                               @Value("${chat.write-behind.fsync:true}") boolean fsync,
+                               @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                               @Value("${chat.write-behind.batch-size:200}") int batchSize,
+                               @Value("${chat.write-behind.idle-flush-ms:200}") long idleFlushMs,
+                               @Value("${chat.write-behind.segment-max-bytes:8388608}") long segmentMaxBytes) {
+        this.chatSessionService = chatSessionService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.journalDirectory = Path.of(journalDirectory);
+        this.fsync = fsync;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.idleFlushMs = idleFlushMs;
+        this.segmentMaxBytes = segmentMaxBytes;
+    }
+
+    // 저널에 남은 턴을 다시 대기열에 넣고 저장 스레드 시작
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        journal = new TurnJournal(journalDirectory, fsync);
+        int recovered = 0;
+        for (TurnJournal.Entry entry : journal.recover()) {
+            try {
+                JournaledTurn turn = objectMapper.readValue(entry.line(), JournaledTurn.class);
+                addPending(turn);
+                queue.add(new QueuedTurn(turn, entry.segment()));
+                recovered++;
+            } catch (JsonProcessingException e) {
+                // 기록 도중 종료되어 잘린 줄 - 응답하지 않은 턴이므로 건너뜀
+                journal.markFlushed(entry.segment(), 1);
+                System.err.println("저널의 손상된 줄을 건너뜁니다: " + e.getOriginalMessage());
+            }
+        }
+        if (recovered > 0) {
+            System.out.println("저널에서 저장되지 않은 턴 " + recovered + "건 복구");
+        }
+
+        // 복구한 턴이 많으면 음수에서 시작해 그만큼 저장될 때까지 새 턴을 받지 않음
+        slots = new Semaphore(queueCapacity - recovered);
+        running = true;
+        flusher = Thread.ofPlatform().name("chat-turn-flusher").daemon(true).start(this::runFlusher);
+    }
+
+    // 사용 중이면 true (비활성화되었거나 종료 중이면 false)
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 턴을 저널에 기록하고 저장 대기열에 넣음
+     * 기록이 끝나면 true를 반환하며, 비활성화/대기열 가득 참/저널 기록 실패 시 false (호출자가 바로 저장)
+     */
+    public boolean submit(Long sessionId, String email, String mode, String userMessage, ChatReply reply) {
+        if (!running || !slots.tryAcquire()) {
+            return false;
+        }
+
+        JournaledTurn turn = new JournaledTurn(UUID.randomUUID().toString(), email, sessionId, mode, userMessage, reply);
+        try {
+            long segment = journal.append(objectMapper.writeValueAsString(turn));
+            addPending(turn);
+            queue.add(new QueuedTurn(turn, segment));
+            return true;
+        } catch (IOException e) {
+            slots.release();
+            System.err.println("턴 저널 기록 실패, 바로 저장합니다: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 아직 DB에 저장되지 않은 세션의 턴 (오래된 순)
+     * 저장 직후에는 DB와 겹쳐 보일 수 있으므로 호출자가 turnId로 중복을 제거합니다.
+     */
+    public List<JournaledTurn> pendingTurns(Long sessionId) {
+        List<JournaledTurn> turns = new ArrayList<>();
+        if (!running) {
+            return turns;
+        }
+        synchronized (pending) {
+            for (JournaledTurn turn : pending.values()) {
+                if (sessionId.equals(turn.sessionId())) {
+                    turns.add(turn);
+                }
+            }
+        }
+        return turns;
+    }
+
+    // 종료 시 대기열을 모두 저장한 뒤 멈춤 (저장하지 못한 턴은 저널에 남아 다음 시작 때 저장)
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        int unsaved;
+        synchronized (pending) {
+            unsaved = pending.size();
+        }
+        if (unsaved == 0) {
+            System.out.println("대기 중인 턴 저장 완료");
+        } else {
+            System.err.println("저장하지 못한 턴 " + unsaved + "건은 다음 시작 때 저장합니다.");
+        }
+        journal.close();
+    }
+
+    // 대기열에 턴이 들어오는 대로 모아서 저장 (부하가 높을수록 한 번에 저장하는 양이 늘어남)
+    private void runFlusher() {
+        List<QueuedTurn> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedTurn first = queue.poll(idleFlushMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // 한가할 때 세그먼트를 넘겨 다 저장된 저널 파일을 정리
+                    journal.rotate();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                boolean flushed = flush(batch);
+                batch.clear();
+                if (!flushed) {
+                    return;
+                }
+
+                if (journal.currentBytes() >= segmentMaxBytes) {
+                    journal.rotate();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                System.err.println("턴 저널 정리 실패: " + e.getMessage());
+            }
+        }
+    }
+
+    // 묶음 저장 (종료 중에 일시적 오류로 실패하면 저널에 남겨 두고 false)
+    private boolean flush(List<QueuedTurn> batch) throws InterruptedException {
+        SaveResult result = save(batch);
+        if (result == SaveResult.REJECTED) {
+            // 묶음 안의 문제 있는 턴만 가려내기 위해 한 건씩 저장
+            for (QueuedTurn queued : batch) {
+                SaveResult single = batch.size() == 1 ? SaveResult.REJECTED : save(List.of(queued));
+                if (single == SaveResult.ABORTED) {
+                    return false;
+                }
+                if (single == SaveResult.REJECTED) {
+                    deadLetter(queued.turn());
+                }
+            }
+        } else if (result == SaveResult.ABORTED) {
+            return false;
+        }
+
+        // 커밋 또는 dead-letter가 끝난 뒤에만 대화 윈도우에서 제외
+        synchronized (pending) {
+            for (QueuedTurn queued : batch) {
+                pending.remove(queued.turn().turnId());
+            }
+        }
+        slots.release(batch.size());
+
+        Map<Long, Integer> countBySegment = new LinkedHashMap<>();
+        for (QueuedTurn queued : batch) {
+            countBySegment.merge(queued.segment(), 1, Integer::sum);
+        }
+        try {
+            for (Map.Entry<Long, Integer> entry : countBySegment.entrySet()) {
+                journal.markFlushed(entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            // 이미 저장된 턴이므로 다시 읽히더라도 turnId로 건너뜀
+            System.err.println("저장된 저널 세그먼트 삭제 실패: " + e.getMessage());
+        }
+        return true;
+    }
+
+    // 일시적 오류는 성공할 때까지 재시도, 데이터 오류는 바로 REJECTED
+    private SaveResult save(List<QueuedTurn> queuedTurns) throws InterruptedException {
+        List<JournaledTurn> turns = queuedTurns.stream().map(QueuedTurn::turn).toList();
+
+        long backoffMs = 500;
+        while (true) {
+            try {
+                int saved = chatSessionService.saveJournaledTurns(turns);
+                System.out.println("대화 턴 " + saved + "건 일괄 저장 완료");
+                return SaveResult.SAVED;
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    System.err.println("대화 턴 저장 실패 (" + turns.size() + "건, 데이터 오류): " + e.getMessage());
+                    return SaveResult.REJECTED;
+                }
+                System.err.println("대화 턴 일괄 저장 실패 (" + turns.size() + "건), 다시 시도합니다: " + e.getMessage());
+                if (!running) {
+                    return SaveResult.ABORTED;
+                }
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 30_000);
+            }
+        }
+    }
+
+    private void addPending(JournaledTurn turn) {
+        synchronized (pending) {
+            pending.put(turn.turnId(), turn);
+        }
+    }
+
+    private void deadLetter(JournaledTurn turn) {
+        System.err.println("저장할 수 없는 턴을 dead-letter로 옮깁니다 (세션 " + turn.sessionId() + ", 턴 " + turn.turnId() + ")");
+        try {
+            journal.deadLetter(objectMapper.writeValueAsString(turn));
+        } catch (IOException e) {
+            System.err.println("dead-letter 기록 실패 (턴 " + turn.turnId() + "): " + e.getMessage());
+        }
+    }
+
+    // 다시 시도하면 성공할 수 있는 오류 (DB 연결 끊김, 잠금 대기 시간 초과 등)
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private enum SaveResult {
+        SAVED, REJECTED, ABORTED
+    }
+
+    private record QueuedTurn(JournaledTurn turn, long segment) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.tchatbot.t_chatbot_backend.persistence;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+
+/**
+ * 저장 대기 중인 대화 턴 (저널에 한 줄로 기록되는 단위)
+ * turnId는 재시작 후 저널을 다시 읽을 때 이미 저장된 턴을 건너뛰는 데 사용합니다.
+ */
+public record JournaledTurn(String turnId, String email, Long sessionId, String mode,
+                            String userMessage, ChatReply reply) {
+}
@@ -0,0 +1,240 @@
+package com.tchatbot.t_chatbot_backend.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 대화 턴 저널 (추가 전용 파일)
+ * 한 줄에 턴 하나를 기록하고 디스크에 내려쓴(fsync) 뒤 반환하므로,
+ * 프로세스가 죽어도 DB에 반영되지 않은 턴은 재시작 시 다시 읽을 수 있습니다.
+ * 파일은 세그먼트(turns-N.log) 단위로 나누고, 모든 턴이 DB에 반영된 이전 세그먼트는 삭제합니다.
+ *
+ * fsync는 group commit으로 처리합니다: 기록은 잠금 안에서 파일에 쓰기만 하고,
+ * fsync는 잠금 밖에서 한 스레드가 대표로 실행해 그때까지 쓰인 모든 줄을 한 번에 내려씁니다.
+ * 그동안 들어온 기록은 진행 중인 fsync가 끝나기를 기다렸다가 다음 fsync 하나를 함께 사용합니다.
+ * 저장할 수 없는 턴은 dead-letter.log에 따로 남깁니다 (복구 대상 아님).
+ */
+class TurnJournal implements AutoCloseable {
+
+    private static final String PREFIX = "turns-";
+    private static final String SUFFIX = ".log";
+    private static final String DEAD_LETTER_FILE = "dead-letter.log";
+
+    private final Path directory;
+    private final boolean fsync;
+
+    // 세그먼트별로 아직 DB에 반영되지 않은 턴 수
+    private final Map<Long, Integer> pendingBySegment = new HashMap<>();
+    private long currentSegment;
+    private long currentBytes;
+    private FileChannel channel;
+    private long writtenSeq; // 지금까지 파일에 쓴 줄 수
+
+    // group commit 상태 (기록 잠금과 별도로, 가상 스레드가 기다릴 수 있도록 ReentrantLock 사용)
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncDone = syncLock.newCondition();
+    private long syncedSeq; // 디스크에 내려쓴 것이 확인된 줄 수
+    private boolean syncing;
+
+    TurnJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * 남아 있는 세그먼트의 모든 줄을 오래된 순서로 읽고, 새 세그먼트를 엽니다.
+     * 시작할 때 한 번만 호출합니다.
+     */
+    synchronized List<Entry> recover() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> segments.add(Long.parseLong(
+                            name.substring(PREFIX.length(), name.length() - SUFFIX.length()))));
+        }
+        segments.sort(null);
+
+        List<Entry> entries = new ArrayList<>();
+        for (long segment : segments) {
+            int count = 0;
+            for (String line : Files.readAllLines(segmentPath(segment), StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    entries.add(new Entry(segment, line));
+                    count++;
+                }
+            }
+            if (count > 0) {
+                pendingBySegment.put(segment, count);
+            } else {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+
+        currentSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        openCurrentSegment();
+        return entries;
+    }
+
+    /**
+     * 한 줄 기록 (fsync까지 끝난 뒤 반환)
+     * 기록된 세그먼트 번호를 반환하며, DB에 반영한 뒤 markFlushed로 알려야 합니다.
+     */
+    long append(String line) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(line + "\n");
+        long segment;
+        long seq;
+        synchronized (this) {
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            currentBytes += length;
+            pendingBySegment.merge(currentSegment, 1, Integer::sum);
+            segment = currentSegment;
+            seq = ++writtenSeq;
+        }
+        if (fsync) {
+            awaitSync(seq);
+        }
+        return segment;
+    }
+
+    // seq번째 줄까지 디스크에 내려쓸 때까지 기다림 (진행 중인 fsync가 없으면 직접 실행)
+    private void awaitSync(long seq) throws IOException {
+        syncLock.lock();
+        try {
+            while (syncing && syncedSeq < seq) {
+                syncDone.awaitUninterruptibly();
+            }
+            if (syncedSeq >= seq) {
+                return;
+            }
+            syncing = true;
+        } finally {
+            syncLock.unlock();
+        }
+
+        long target;
+        FileChannel syncChannel;
+        synchronized (this) {
+            target = writtenSeq;
+            syncChannel = channel;
+        }
+        IOException failure = null;
+        try {
+            syncChannel.force(false);
+        } catch (ClosedChannelException e) {
+            // 그사이 rotate가 세그먼트를 내려쓰고 닫음 (markSynced로 이미 반영됨)
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        syncLock.lock();
+        try {
+            syncing = false;
+            if (failure == null) {
+                syncedSeq = Math.max(syncedSeq, target);
+            }
+            syncDone.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void markSynced(long seq) {
+        syncLock.lock();
+        try {
+            syncedSeq = Math.max(syncedSeq, seq);
+            syncDone.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 저장할 수 없는 턴을 따로 기록 (운영자가 확인 후 처리)
+     */
+    synchronized void deadLetter(String line) throws IOException {
+        Files.writeString(directory.resolve(DEAD_LETTER_FILE), line + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * DB에 반영된 턴 수를 알림 (다 반영된 이전 세그먼트는 삭제)
+     */
+    synchronized void markFlushed(long segment, int count) throws IOException {
+        int remaining = pendingBySegment.getOrDefault(segment, 0) - count;
+        if (remaining > 0) {
+            pendingBySegment.put(segment, remaining);
+            return;
+        }
+        pendingBySegment.remove(segment);
+        if (segment != currentSegment) {
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    /**
+     * 현재 세그먼트가 비어 있지 않으면 새 세그먼트로 교체
+     * 교체하지 않으면 계속 쓰이는 세그먼트는 지울 수 없으므로, 대기열이 비었을 때나 크기가 커졌을 때 호출합니다.
+     */
+    synchronized void rotate() throws IOException {
+        if (currentBytes == 0) {
+            return;
+        }
+        long previous = currentSegment;
+        // 닫기 전에 내려써서 fsync를 기다리는 기록이 닫힌 채널을 다시 내려쓰지 않도록 함
+        if (fsync) {
+            channel.force(false);
+            markSynced(writtenSeq);
+        }
+        channel.close();
+        currentSegment++;
+        openCurrentSegment();
+        if (!pendingBySegment.containsKey(previous)) {
+            Files.deleteIfExists(segmentPath(previous));
+        }
+    }
+
+    synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void openCurrentSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(currentSegment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        currentBytes = channel.size();
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(PREFIX + segment + SUFFIX);
+    }
+
+    record Entry(long segment, String line) {
+    }
+}
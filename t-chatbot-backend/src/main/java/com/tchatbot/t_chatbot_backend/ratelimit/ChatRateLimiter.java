@@ -0,0 +1,160 @@
+package com.tchatbot.t_chatbot_backend.ratelimit;
+
+import com.tchatbot.t_chatbot_backend.llm.PromptTemplates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자별 채팅 요청 한도 (모드별 토큰 버킷 + 선택적 전역 버킷)
+ * 버킷은 (모드, 이메일)마다 하나씩 ConcurrentHashMap에 두며, 조회와 차감 모두 잠금 없이 처리합니다.
+ * 오래 쓰지 않아 가득 찬 버킷은 주기적으로 정리합니다.
+ *
+ * 모드별 설정 형식: chat.ratelimit.mode-limits=love:30:15,tbrainwash:10:5 (모드:용량:분당 충전량)
+ */
+@Component
+public class ChatRateLimiter {
+
+    private final boolean enabled;
+    private final Map<String, BucketSpec> modeSpecs;
+    private final Map<String, ConcurrentHashMap<String, TokenBucket>> buckets = new HashMap<>();
+    private final TokenBucket globalBucket;
+
+    // 거절 카운터는 (범위, 모드)마다 시작 시 한 번만 등록하고 거절 시에는 증가만 함
+    private final Map<String, Counter> userRejected = new HashMap<>();
+    private final Map<String, Counter> globalRejected = new HashMap<>();
+
+    public ChatRateLimiter(
+            @Value("${chat.ratelimit.enabled:true}") boolean enabled,
+            @Value("${chat.ratelimit.capacity:20}") int capacity,
+            @Value("${chat.ratelimit.refill-per-minute:10}") double refillPerMinute,
+            @Value("${chat.ratelimit.mode-limits:}") String modeLimits,
+            @Value("${chat.ratelimit.global.enabled:false}") boolean globalEnabled,
+            @Value("${chat.ratelimit.global.capacity:200}") int globalCapacity,
+            @Value("${chat.ratelimit.global.refill-per-minute:600}") double globalRefillPerMinute,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+
+        Map<String, BucketSpec> specs = new HashMap<>();
+        for (String mode : PromptTemplates.MODES) {
+            specs.put(mode, new BucketSpec(capacity, refillPerMinute));
+        }
+        for (String entry : modeLimits.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3 || !PromptTemplates.MODES.contains(parts[0])) {
+                throw new IllegalArgumentException("chat.ratelimit.mode-limits 형식이 잘못되었습니다: " + entry);
+            }
+            specs.put(parts[0], new BucketSpec(Integer.parseInt(parts[1]), Double.parseDouble(parts[2])));
+        }
+        this.modeSpecs = Map.copyOf(specs);
+
+        // 모드 목록이 고정이므로 바깥 Map은 시작 후 변경하지 않음
+        for (String mode : PromptTemplates.MODES) {
+            buckets.put(mode, new ConcurrentHashMap<>());
+            userRejected.put(mode, rejectedCounter("user", mode, meterRegistry));
+            globalRejected.put(mode, rejectedCounter("global", mode, meterRegistry));
+        }
+
+        this.globalBucket = globalEnabled
+                ? new TokenBucket(globalCapacity, globalRefillPerMinute / 60.0, System.nanoTime())
+                : null;
+    }
+
+    /**
+     * 요청 한도 확인 및 차감
+     * cost는 요청이 소비할 토큰 수 (일반 채팅 1, 배치는 항목 수)
+     */
+    public RateLimitDecision tryAcquire(String email, String mode, int cost) {
+        if (!enabled) {
+            return RateLimitDecision.UNLIMITED;
+        }
+
+        String resolvedMode = PromptTemplates.resolveMode(mode);
+        long now = System.nanoTime();
+        TokenBucket bucket = bucketFor(resolvedMode, email, now);
+
+        RateLimitDecision decision = bucket.tryAcquire(cost, now);
+        if (!decision.allowed()) {
+            userRejected.get(resolvedMode).increment();
+            return decision;
+        }
+
+        if (globalBucket != null) {
+            RateLimitDecision global = globalBucket.tryAcquire(cost, now);
+            if (!global.allowed()) {
+                // 사용자 한도는 남았지만 전체 한도 초과 - 사용자 버킷에서 뺀 토큰은 돌려줌
+                bucket.refund(cost);
+                globalRejected.get(resolvedMode).increment();
+                return global;
+            }
+        }
+        return decision;
+    }
+
+    /**
+     * 요청 하나가 소비할 수 있는 최대 토큰 수 (모드 버킷과 전역 버킷 용량 중 작은 값)
+     * 이보다 큰 요청은 기다려도 허용되지 않으므로 호출자가 미리 거절해야 합니다. 한도가 없으면 Integer.MAX_VALUE
+     */
+    public int maxCost(String mode) {
+        if (!enabled) {
+            return Integer.MAX_VALUE;
+        }
+        int modeCapacity = modeSpecs.get(PromptTemplates.resolveMode(mode)).capacity();
+        return globalBucket != null ? Math.min(modeCapacity, globalBucket.capacity()) : modeCapacity;
+    }
+
+    // 이미 차감했지만 처리하지 않은 요청의 토큰을 돌려줌 (배치에서 다른 모드가 거절된 경우 등)
+    public void refund(String email, String mode, int cost) {
+        if (!enabled) {
+            return;
+        }
+        String resolvedMode = PromptTemplates.resolveMode(mode);
+        TokenBucket bucket = buckets.get(resolvedMode).get(email);
+        if (bucket != null) {
+            bucket.refund(cost);
+        }
+        if (globalBucket != null) {
+            globalBucket.refund(cost);
+        }
+    }
+
+    private TokenBucket bucketFor(String mode, String email, long now) {
+        ConcurrentHashMap<String, TokenBucket> modeBuckets = buckets.get(mode);
+        // 이미 있는 버킷은 잠금 없이 조회 (computeIfAbsent는 처음 만들 때만 사용)
+        TokenBucket bucket = modeBuckets.get(email);
+        if (bucket != null) {
+            return bucket;
+        }
+        BucketSpec spec = modeSpecs.get(mode);
+        return modeBuckets.computeIfAbsent(email,
+                key -> new TokenBucket(spec.capacity(), spec.refillPerMinute() / 60.0, now));
+    }
+
+    // 가득 찬 버킷은 새로 만든 것과 같으므로 제거해 메모리 사용을 제한
+    @Scheduled(fixedDelayString = "${chat.ratelimit.cleanup-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, TokenBucket> modeBuckets : buckets.values()) {
+            modeBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    private static Counter rejectedCounter(String scope, String mode, MeterRegistry meterRegistry) {
+        return Counter.builder("chat.ratelimit.rejected")
+                .tag("scope", scope)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private record BucketSpec(int capacity, double refillPerMinute) {
+    }
+}
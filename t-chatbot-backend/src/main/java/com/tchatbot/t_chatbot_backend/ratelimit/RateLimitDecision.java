@@ -0,0 +1,14 @@
+package com.tchatbot.t_chatbot_backend.ratelimit;
+
+/**
+ * 요청 한도 확인 결과 (RateLimit-* 응답 헤더 값)
+ * resetSeconds: 버킷이 다시 가득 찰 때까지의 시간, retryAfterSeconds: 거절된 경우 다시 시도할 수 있는 시간
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+
+    static final RateLimitDecision UNLIMITED = new RateLimitDecision(true, -1, -1, 0, 0);
+
+    public boolean isUnlimited() {
+        return limit < 0;
+    }
+}
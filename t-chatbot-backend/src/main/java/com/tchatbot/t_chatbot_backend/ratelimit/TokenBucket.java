@@ -0,0 +1,68 @@
+package com.tchatbot.t_chatbot_backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 잠금 없는 토큰 버킷 (GCRA 방식)
+ * 남은 토큰 수 대신 "다음 토큰이 도착할 이론상 시각(TAT)" 하나만 AtomicLong으로 관리하므로
+ * 요청마다 CAS 한 번으로 충전과 차감을 동시에 처리합니다.
+ * TAT가 현재 시각보다 capacity개 분량 이상 앞서면 버킷이 빈 것입니다.
+ */
+public final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int capacity;
+    private final long emissionIntervalNanos; // 토큰 1개가 충전되는 시간
+    private final long burstNanos;            // 버킷 전체가 충전되는 시간
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.emissionIntervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / refillPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(now); // 가득 찬 상태로 시작
+    }
+
+    // cost만큼 차감 (할인 없음). capacity보다 큰 요청은 항상 거절되므로 호출자가 capacity()로 미리 확인
+    public RateLimitDecision tryAcquire(int cost, long now) {
+        long increment = emissionIntervalNanos * cost;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            long backlog = base + increment - now;
+            if (backlog > burstNanos) {
+                long currentBacklog = base - now;
+                return new RateLimitDecision(false, capacity,
+                        (burstNanos - currentBacklog) / emissionIntervalNanos,
+                        toSeconds(currentBacklog),
+                        toSeconds(backlog - burstNanos));
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + increment)) {
+                return new RateLimitDecision(true, capacity,
+                        (burstNanos - backlog) / emissionIntervalNanos,
+                        toSeconds(backlog),
+                        0);
+            }
+        }
+    }
+
+    // 다른 한도(전역 버킷)에서 거절되어 요청이 실제로 처리되지 않은 경우 차감한 토큰을 돌려줌
+    public void refund(int cost) {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos * cost);
+    }
+
+    // 한 번에 차감할 수 있는 최대 토큰 수
+    public int capacity() {
+        return capacity;
+    }
+
+    // 가득 찬 버킷은 새로 만든 것과 같으므로 정리해도 됨
+    public boolean isFull(long now) {
+        return theoreticalArrival.get() <= now;
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
@@ -1,14 +1,45 @@
 package com.tchatbot.t_chatbot_backend.repository;
 
 import com.tchatbot.t_chatbot_backend.entity.ChatHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatHistoryRepository extends JpaRepository<ChatHistory, Long> {
     List<ChatHistory> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<ChatHistory> findByIsPublicTrueOrderByCreatedAtDesc();
     List<ChatHistory> findByChatSessionIdOrderByCreatedAtAsc(Long sessionId);
+    
+    // 세션 대화 키셋 페이지: 최신순 (createdAt, id 내림차순, idx_chat_history_session_created 사용)
+    @Query("select h from ChatHistory h where h.chatSession.id = :sessionId order by h.createdAt desc, h.id desc")
+    List<ChatHistory> findLatestPageBySessionId(@Param("sessionId") Long sessionId, Pageable pageable);
+    
+    @Query("select h from ChatHistory h where h.chatSession.id = :sessionId and " +
+           "(h.createdAt < :createdAt or (h.createdAt = :createdAt and h.id < :id)) " +
+           "order by h.createdAt desc, h.id desc")
+    List<ChatHistory> findPageBySessionIdBefore(@Param("sessionId") Long sessionId,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id, Pageable pageable);
+    // 요약 이후의 최근 대화 (최신순)
+    List<ChatHistory> findByChatSessionIdAndIdGreaterThanOrderByCreatedAtDescIdDesc(Long sessionId, Long afterId, Pageable pageable);
+    
+    // 아직 요약되지 않은 대화 (오래된 순)
+    List<ChatHistory> findByChatSessionIdAndIdGreaterThanOrderByIdAsc(Long sessionId, Long afterId, Pageable pageable);
+    
+    // 세션 목록용 비정규화 컬럼 채우기 (기존 세션)
+    long countByChatSessionId(Long sessionId);
+    
+    Optional<ChatHistory> findFirstByChatSessionIdOrderByIdDesc(Long sessionId);
+    
+    // 이미 저장된 턴 ID (저널 재처리 시 중복 확인)
+    @Query("select h.turnId from ChatHistory h where h.turnId in :turnIds")
+    List<String> findExistingTurnIds(@Param("turnIds") Collection<String> turnIds);
 }
@@ -1,13 +1,77 @@
 package com.tchatbot.t_chatbot_backend.repository;
 
 import com.tchatbot.t_chatbot_backend.entity.ChatSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ChatSessionRepository extends JpaRepository<ChatSession, Long> {
     List<ChatSession> findByUserIdOrderByUpdatedAtDesc(Long userId);
+    
+    // 소유자까지 조건에 넣어 조회 (권한 확인에 사용자 테이블을 거치지 않음)
+    @Query("select s from ChatSession s where s.id = :sessionId and s.user.id = :userId")
+    Optional<ChatSession> findByIdAndUserId(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+    
+    // 세션 목록 키셋 페이지: 최근 수정 순 (updatedAt, id 내림차순, idx_chat_sessions_user_updated 사용)
+    @Query("select s from ChatSession s where s.user.id = :userId order by s.updatedAt desc, s.id desc")
+    List<ChatSession> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("select s from ChatSession s where s.user.id = :userId and " +
+           "(s.updatedAt < :updatedAt or (s.updatedAt = :updatedAt and s.id < :id)) " +
+           "order by s.updatedAt desc, s.id desc")
+    List<ChatSession> findPageByUserIdBefore(@Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt,
+                                            @Param("id") Long id, Pageable pageable);
     List<ChatSession> findByUserIdAndModeOrderByUpdatedAtDesc(Long userId, String mode);
+    
+    // 최근 활동이 있고, 요약되지 않은 대화가 기준치를 넘은 세션
+    @Query("select s.id from ChatSession s where s.updatedAt > :since and " +
+           "(select count(h) from ChatHistory h where h.chatSession = s " +
+           " and h.id > coalesce(s.summarizedUpToId, 0)) > :threshold")
+    List<Long> findIdsNeedingSummary(@Param("since") LocalDateTime since, @Param("threshold") long threshold);
+    
+    // 요약 갱신 (updatedAt은 건드리지 않아 세션 목록 순서가 바뀌지 않음)
+    @Transactional
+    @Modifying
+    @Query("update ChatSession s set s.summary = :summary, s.summarizedUpToId = :upToId where s.id = :sessionId")
+    int updateSummary(@Param("sessionId") Long sessionId, @Param("summary") String summary, @Param("upToId") Long upToId);
+    
+    // 턴 추가 반영: 메시지 수는 증분으로 갱신하므로 같은 세션에 동시에 저장되어도 서로 덮어쓰지 않음
+    // 같은 트랜잭션에서 바꾼 세션(제목 등)이 먼저 저장되도록 flush 후 실행
+    @Modifying(flushAutomatically = true)
+    @Query("update ChatSession s set s.messageCount = coalesce(s.messageCount, 0) + :count, " +
+           "s.lastMessagePreview = :preview, s.lastMessageAt = :at, s.updatedAt = :at where s.id = :sessionId")
+    int recordTurnsAdded(@Param("sessionId") Long sessionId, @Param("count") int count,
+                         @Param("preview") String preview, @Param("at") LocalDateTime at);
+    
+    // 턴 하나 추가 (채팅 저장 경로): 세션을 조회하지 않고 UPDATE 한 번으로
+    // 소유자 확인, 첫 메시지면 제목 생성, 메시지 수/미리보기/updatedAt 갱신을 처리 (소유자가 다르거나 없으면 0)
+    @Modifying
+    @Query("update ChatSession s set " +
+           "s.title = case when coalesce(s.messageCount, 0) = 0 and s.title = :defaultTitle then :firstTitle else s.title end, " +
+           "s.messageCount = coalesce(s.messageCount, 0) + 1, s.lastMessagePreview = :preview, " +
+           "s.lastMessageAt = :at, s.updatedAt = :at " +
+           "where s.id = :sessionId and s.user.id = :userId")
+    int recordTurnAdded(@Param("sessionId") Long sessionId, @Param("userId") Long userId,
+                        @Param("defaultTitle") String defaultTitle, @Param("firstTitle") String firstTitle,
+                        @Param("preview") String preview, @Param("at") LocalDateTime at);
+    
+    // 비정규화 컬럼을 아직 채우지 않은 세션 (컬럼 추가 이전에 만든 세션)
+    @Query("select s.id from ChatSession s where s.messageCount is null")
+    List<Long> findIdsWithoutStats(Pageable pageable);
+    
+    // 기존 세션의 비정규화 컬럼 채우기 (updatedAt은 건드리지 않아 세션 목록 순서가 바뀌지 않음)
+    @Modifying
+    @Query("update ChatSession s set s.messageCount = :count, s.lastMessagePreview = :preview, " +
+           "s.lastMessageAt = :at where s.id = :sessionId")
+    int initStats(@Param("sessionId") Long sessionId, @Param("count") int count,
+                  @Param("preview") String preview, @Param("at") LocalDateTime at);
 }
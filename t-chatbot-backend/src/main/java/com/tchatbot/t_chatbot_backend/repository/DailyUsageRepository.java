@@ -0,0 +1,30 @@
+package com.tchatbot.t_chatbot_backend.repository;
+
+import com.tchatbot.t_chatbot_backend.entity.DailyUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyUsageRepository extends JpaRepository<DailyUsage, Long> {
+    List<DailyUsage> findByUserIdAndUsageDate(Long userId, LocalDate usageDate);
+    List<DailyUsage> findByUserIdAndUsageDateGreaterThanEqualOrderByUsageDateDescModeAsc(Long userId, LocalDate from);
+    
+    // 읽고 쓰지 않고 DB에서 바로 더함 (행이 없으면 0을 반환하므로 호출자가 새로 생성)
+    @Transactional
+    @Modifying
+    @Query("update DailyUsage d set d.requestCount = d.requestCount + :requests, " +
+           "d.promptTokens = d.promptTokens + :promptTokens, " +
+           "d.outputTokens = d.outputTokens + :outputTokens, " +
+           "d.thinkingTokens = d.thinkingTokens + :thinkingTokens " +
+           "where d.user.id = :userId and d.mode = :mode and d.usageDate = :usageDate")
+    int addUsage(@Param("userId") Long userId, @Param("mode") String mode, @Param("usageDate") LocalDate usageDate,
+                 @Param("requests") long requests, @Param("promptTokens") long promptTokens,
+                 @Param("outputTokens") long outputTokens, @Param("thinkingTokens") long thinkingTokens);
+}
@@ -2,12 +2,21 @@ package com.tchatbot.t_chatbot_backend.repository;
 
 import com.tchatbot.t_chatbot_backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+    
+    // 엔티티 없이 ID만 필요할 때 (참조 프록시와 함께 사용)
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
     boolean existsByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
 }
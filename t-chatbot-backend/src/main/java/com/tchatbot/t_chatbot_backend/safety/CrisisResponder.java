@@ -0,0 +1,133 @@
+package com.tchatbot.t_chatbot_backend.safety;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 위기 표현(자살/자해 등) 즉시 응답
+ * 사용자 메시지에 사전의 키워드가 있으면 Gemini를 호출하지 않고 상담 기관 안내 템플릿으로 바로 응답합니다.
+ * 모델이 프롬프트 지시를 따르는지와 무관하게, 모델 응답을 기다리지 않고 안내가 나가도록 하기 위함입니다.
+ *
+ * 사전(chat.crisis.dictionary-location): 한 줄에 키워드 하나, #으로 시작하는 줄은 주석,
+ * !로 시작하는 줄은 제외 표현 (키워드가 이 표현 안에 있으면 일치로 보지 않음, 예: !자살골)
+ * 사전과 응답 템플릿은 파일이 바뀌면 재시작 없이 다시 읽습니다.
+ */
+@Component
+public class CrisisResponder {
+
+    private final ResourceLoader resourceLoader;
+    private final boolean enabled;
+    private final String dictionaryLocation;
+    private final String responseLocation;
+
+    private volatile Snapshot snapshot = new Snapshot(KeywordAutomaton.compile(List.of()), Optional.empty());
+    private volatile long loadedLastModified = -1;
+
+    private final Counter matchedCounter;
+
+    public CrisisResponder(ResourceLoader resourceLoader,
+                           @Value("${chat.crisis.enabled:true}") boolean enabled,
+                           @Value("${chat.crisis.dictionary-location:classpath:crisis-keywords.txt}") String dictionaryLocation,
+                           @Value("${chat.crisis.response-location:classpath:prompts/crisis-response.txt}") String responseLocation,
+                           MeterRegistry meterRegistry) {
+        this.resourceLoader = resourceLoader;
+        this.enabled = enabled;
+        this.dictionaryLocation = dictionaryLocation;
+        this.responseLocation = responseLocation;
+        this.matchedCounter = Counter.builder("chat.crisis.matched")
+                .description("위기 키워드로 즉시 응답한 메시지 수")
+                .register(meterRegistry);
+        reloadIfChanged();
+    }
+
+    /**
+     * 위기 키워드가 있으면 안내 응답, 없으면 empty (검사 중 객체를 만들지 않음)
+     */
+    public Optional<String> respond(String userMessage) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Snapshot current = snapshot;
+        if (current.response().isEmpty() || !current.automaton().matches(userMessage)) {
+            return Optional.empty();
+        }
+        matchedCounter.increment();
+        return current.response();
+    }
+
+    public boolean matches(String userMessage) {
+        return enabled && snapshot.response().isPresent() && snapshot.automaton().matches(userMessage);
+    }
+
+    // 사전이나 템플릿 파일의 수정 시각이 바뀐 경우에만 다시 읽음
+    @Scheduled(initialDelayString = "${chat.crisis.reload-interval-ms:30000}",
+            fixedDelayString = "${chat.crisis.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        if (!enabled) {
+            return;
+        }
+        Resource dictionary = resourceLoader.getResource(dictionaryLocation);
+        Resource response = resourceLoader.getResource(responseLocation);
+        if (!dictionary.exists() || !response.exists()) {
+            if (loadedLastModified == -1) {
+                System.err.println("위기 키워드 사전 또는 응답 템플릿이 없어 즉시 응답을 사용하지 않습니다.");
+                loadedLastModified = 0;
+            }
+            return;
+        }
+
+        long lastModified = Math.max(lastModified(dictionary), lastModified(response));
+        if (lastModified == loadedLastModified) {
+            return;
+        }
+
+        try {
+            List<String> keywords = new ArrayList<>();
+            List<String> exclusions = new ArrayList<>();
+            for (String line : dictionary.getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+                String keyword = line.strip();
+                if (keyword.startsWith("!")) {
+                    exclusions.add(keyword.substring(1));
+                } else if (!keyword.isEmpty() && !keyword.startsWith("#")) {
+                    keywords.add(keyword);
+                }
+            }
+            String template = response.getContentAsString(StandardCharsets.UTF_8).strip();
+            if (template.isEmpty()) {
+                throw new IOException("응답 템플릿이 비어 있습니다.");
+            }
+
+            snapshot = new Snapshot(KeywordAutomaton.compile(keywords, exclusions), Optional.of(template));
+            loadedLastModified = lastModified;
+            System.out.println("위기 키워드 사전 로드 완료: " + keywords.size() + "개 (제외 표현 " + exclusions.size() + "개)");
+        } catch (IOException | IllegalArgumentException e) {
+            // 기존 사전 유지 (같은 파일을 반복해서 읽지 않도록 시각은 기록)
+            loadedLastModified = lastModified;
+            System.err.println("위기 키워드 사전 로드 실패, 기존 사전 유지: " + e.getMessage());
+        }
+    }
+
+    // 수정 시각을 알 수 없는 리소스(jar 내부 등)는 0 - 시작 시 한 번만 읽힘
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // 응답은 Optional로 미리 만들어 두어 일치할 때마다 새로 감싸지 않음
+    private record Snapshot(KeywordAutomaton automaton, Optional<String> response) {
+    }
+}
@@ -0,0 +1,262 @@
+package com.tchatbot.t_chatbot_backend.safety;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 여러 키워드를 한 번에 찾는 Aho-Corasick 오토마톤 (불변)
+ * 입력 길이에 비례하는 시간에 사전 전체를 검사하며, 검사 중에는 객체를 만들지 않습니다.
+ * 전이는 상태마다 정렬된 char 배열로 두고 이진 탐색합니다.
+ *
+ * 정규화: 글자와 숫자만 비교하고(공백/문장부호 무시) 대소문자를 구분하지 않으므로
+ * "죽고 싶어"와 "죽고싶어"는 같은 입력으로 취급합니다.
+ *
+ * 단어 경계: 영문(라틴 문자/숫자)으로 시작하거나 끝나는 키워드는 그 끝이 단어 경계에 있어야 일치합니다.
+ * ("want to die"는 "want to diet"와, "suicide"는 "suicidal"과 일치하지 않음)
+ * 한글은 조사/어미가 붙으므로 경계를 보지 않습니다.
+ *
+ * 제외 표현: 키워드가 제외 표현 안에 들어 있으면 일치로 보지 않습니다. ("자살골"의 "자살")
+ * 같은 입력의 다른 위치에 제외 표현 밖의 키워드가 있으면 일치합니다.
+ */
+public final class KeywordAutomaton {
+
+    // 제외 표현의 최대 길이 (정규화 후 글자 수) - 검사 중 대기 중인 일치를 long 비트로 관리하기 위함
+    public static final int MAX_EXCLUSION_LENGTH = 32;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private static final byte KEYWORD = 1;
+    private static final byte EXCLUSION = 2;
+
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    // 상태가 나타내는 문자열이 키워드/제외 표현인지 (비트 플래그)
+    private final byte[] kind;
+    // 실패 링크를 따라 가장 먼저 만나는 키워드/제외 표현 상태 (없으면 0)
+    private final int[] output;
+    // 상태의 깊이 = 정규화된 문자열 길이
+    private final int[] depth;
+    private final boolean[] startBoundary;
+    private final boolean[] endBoundary;
+    private final int maxExclusionLength;
+
+    private KeywordAutomaton(char[][] keys, int[][] targets, int[] fail, byte[] kind, int[] output, int[] depth,
+                             boolean[] startBoundary, boolean[] endBoundary, int maxExclusionLength) {
+        this.keys = keys;
+        this.targets = targets;
+        this.fail = fail;
+        this.kind = kind;
+        this.output = output;
+        this.depth = depth;
+        this.startBoundary = startBoundary;
+        this.endBoundary = endBoundary;
+        this.maxExclusionLength = maxExclusionLength;
+    }
+
+    /**
+     * 키워드 목록으로 오토마톤 생성 (정규화 후 빈 키워드는 무시)
+     */
+    public static KeywordAutomaton compile(Collection<String> keywords) {
+        return compile(keywords, List.of());
+    }
+
+    /**
+     * 키워드와 제외 표현으로 오토마톤 생성 (정규화 후 빈 항목은 무시)
+     * 제외 표현이 MAX_EXCLUSION_LENGTH자를 넘으면 IllegalArgumentException
+     */
+    public static KeywordAutomaton compile(Collection<String> keywords, Collection<String> exclusions) {
+        // 1. 트라이 구성 (생성 시에만 Map 사용)
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Byte> kinds = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        kinds.add((byte) 0);
+        depths.add(0);
+
+        int maxExclusionLength = 0;
+        for (String keyword : keywords) {
+            insert(keyword, KEYWORD, children, kinds, depths);
+        }
+        for (String exclusion : exclusions) {
+            int length = insert(exclusion, EXCLUSION, children, kinds, depths);
+            if (length > MAX_EXCLUSION_LENGTH) {
+                throw new IllegalArgumentException("제외 표현은 " + MAX_EXCLUSION_LENGTH + "자 이하여야 합니다: " + exclusion);
+            }
+            maxExclusionLength = Math.max(maxExclusionLength, length);
+        }
+
+        int size = children.size();
+        char[][] keys = new char[size][];
+        int[][] targets = new int[size][];
+        byte[] kind = new byte[size];
+        int[] depth = new int[size];
+        for (int state = 0; state < size; state++) {
+            TreeMap<Character, Integer> edges = children.get(state);
+            keys[state] = edges.isEmpty() ? NO_KEYS : new char[edges.size()];
+            targets[state] = edges.isEmpty() ? NO_TARGETS : new int[edges.size()];
+            int index = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                keys[state][index] = edge.getKey();
+                targets[state][index] = edge.getValue();
+                index++;
+            }
+            kind[state] = kinds.get(state);
+            depth[state] = depths.get(state);
+        }
+
+        // 2. 실패 링크와 출력 링크 (너비 우선), 경계 조건은 상태가 나타내는 문자열의 첫/마지막 글자로 결정
+        int[] fail = new int[size];
+        int[] output = new int[size];
+        boolean[] startBoundary = new boolean[size];
+        boolean[] endBoundary = new boolean[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < keys[0].length; i++) {
+            int child = targets[0][i];
+            startBoundary[child] = isLatinWordChar(keys[0][i]);
+            endBoundary[child] = startBoundary[child];
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < keys[state].length; i++) {
+                char c = keys[state][i];
+                int child = targets[state][i];
+                startBoundary[child] = startBoundary[state];
+                endBoundary[child] = isLatinWordChar(c);
+                int fallback = fail[state];
+                while (fallback != 0 && transition(keys, targets, fallback, c) < 0) {
+                    fallback = fail[fallback];
+                }
+                int target = transition(keys, targets, fallback, c);
+                fail[child] = target >= 0 && target != child ? target : 0;
+                output[child] = kind[fail[child]] != 0 ? fail[child] : output[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        return new KeywordAutomaton(keys, targets, fail, kind, output, depth,
+                startBoundary, endBoundary, maxExclusionLength);
+    }
+
+    // 트라이에 항목 추가, 정규화된 길이를 반환
+    private static int insert(String entry, byte entryKind, List<TreeMap<Character, Integer>> children,
+                              List<Byte> kinds, List<Integer> depths) {
+        int state = 0;
+        int length = 0;
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (!isSignificant(c)) {
+                continue;
+            }
+            length++;
+            char normalized = Character.toLowerCase(c);
+            Integer next = children.get(state).get(normalized);
+            if (next == null) {
+                next = children.size();
+                children.add(new TreeMap<>());
+                kinds.add((byte) 0);
+                depths.add(length);
+                children.get(state).put(normalized, next);
+            }
+            state = next;
+        }
+        if (length > 0) {
+            kinds.set(state, (byte) (kinds.get(state) | entryKind));
+        }
+        return length;
+    }
+
+    /**
+     * 입력에 제외 표현 밖의 키워드가 하나라도 있는지
+     */
+    public boolean matches(CharSequence text) {
+        if (text == null || keys[0].length == 0) {
+            return false;
+        }
+        int state = 0;
+        // 최근 글자마다 단어 시작 여부 (비트 0이 현재 글자)
+        long wordStarts = 0;
+        // 제외 표현에 덮이는지 기다리는 키워드 일치 (시작 글자 위치를 비트로, 비트 0이 현재 글자)
+        long pending = 0;
+        boolean previousLatin = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean latin = isLatinWordChar(c);
+            boolean wordStart = !previousLatin;
+            previousLatin = latin;
+            if (!isSignificant(c)) {
+                continue;
+            }
+            wordStarts = (wordStarts << 1) | (wordStart ? 1 : 0);
+            pending <<= 1;
+
+            char normalized = Character.toLowerCase(c);
+            int next = transition(keys, targets, state, normalized);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = transition(keys, targets, state, normalized);
+            }
+            state = next < 0 ? 0 : next;
+
+            boolean wordEnd = i + 1 >= text.length() || !isLatinWordChar(text.charAt(i + 1));
+            int excluded = 0;
+            for (int found = kind[state] != 0 ? state : output[state]; found != 0; found = output[found]) {
+                int length = depth[found];
+                if (startBoundary[found] && length <= Long.SIZE && (wordStarts >>> (length - 1) & 1) == 0) {
+                    continue;
+                }
+                if (endBoundary[found] && !wordEnd) {
+                    continue;
+                }
+                if ((kind[found] & KEYWORD) != 0) {
+                    if (length > maxExclusionLength) {
+                        // 어떤 제외 표현보다 길면 덮일 수 없음
+                        return true;
+                    }
+                    pending |= 1L << (length - 1);
+                }
+                if ((kind[found] & EXCLUSION) != 0) {
+                    excluded = Math.max(excluded, length);
+                }
+            }
+            if (excluded > 0) {
+                // 제외 표현 안에서 시작한 키워드 (이미 끝난 것만 대기 중이므로 모두 제외 표현 안에 있음)
+                pending &= -1L << excluded;
+            }
+            if (pending >>> maxExclusionLength != 0) {
+                // 이후에 끝나는 제외 표현으로는 덮을 수 없을 만큼 앞에서 시작한 키워드
+                return true;
+            }
+        }
+        return pending != 0;
+    }
+
+    public boolean isEmpty() {
+        return keys[0].length == 0;
+    }
+
+    private static int transition(char[][] keys, int[][] targets, int state, char c) {
+        int index = Arrays.binarySearch(keys[state], c);
+        return index >= 0 ? targets[state][index] : -1;
+    }
+
+    private static boolean isSignificant(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    // 단어 경계를 보는 글자 (영문자와 숫자)
+    private static boolean isLatinWordChar(char c) {
+        if (c < 0x80) {
+            return Character.isLetterOrDigit(c);
+        }
+        return Character.isLetter(c) && Character.UnicodeScript.of(c) == Character.UnicodeScript.LATIN;
+    }
+}
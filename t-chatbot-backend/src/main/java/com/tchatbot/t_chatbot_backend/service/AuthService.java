@@ -1,10 +1,11 @@
 package com.tchatbot.t_chatbot_backend.service;
 
-import com.tchatbot.t_chatbot_backend.dto.AuthResponse;
 import com.tchatbot.t_chatbot_backend.dto.LoginRequest;
+import com.tchatbot.t_chatbot_backend.dto.SessionUser;
 import com.tchatbot.t_chatbot_backend.dto.SignUpRequest;
 import com.tchatbot.t_chatbot_backend.entity.User;
 import com.tchatbot.t_chatbot_backend.repository.UserRepository;
+import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -15,16 +16,19 @@ public class AuthService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserIdCache userIdCache;
     
     @Autowired
     public AuthService(UserRepository userRepository, 
-                      PasswordEncoder passwordEncoder) {
+                      PasswordEncoder passwordEncoder,
+                      UserIdCache userIdCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userIdCache = userIdCache;
     }
     
     @Transactional
-    public AuthResponse signUp(SignUpRequest request) {
+    public SessionUser signUp(SignUpRequest request) {
         // 이메일 중복 체크
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("이미 사용 중인 이메일입니다.");
@@ -38,12 +42,11 @@ public class AuthService {
         
         userRepository.save(user);
         
-        // 세션 기반이므로 토큰 대신 null 반환
-        return new AuthResponse(null, user.getUsername(), user.getEmail());
+        return toSessionUser(user);
     }
     
     @Transactional(readOnly = true)
-    public AuthResponse login(LoginRequest request) {
+    public SessionUser login(LoginRequest request) {
         // 사용자 찾기
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("이메일 또는 비밀번호가 올바르지 않습니다."));
@@ -53,7 +56,31 @@ public class AuthService {
             throw new RuntimeException("이메일 또는 비밀번호가 올바르지 않습니다.");
         }
         
-        // 세션 기반이므로 토큰 대신 null 반환
-        return new AuthResponse(null, user.getUsername(), user.getEmail());
+        return toSessionUser(user);
+    }
+    
+    /**
+     * 로그인한 사용자 (로그인하지 않았으면 null)
+     * 사용자 정보 객체를 저장하기 전에 로그인한 세션은 이메일로 ID를 한 번만 찾아 세션에 채워 둡니다.
+     */
+    public SessionUser currentUser(HttpSession session) {
+        SessionUser user = (SessionUser) session.getAttribute(SessionUser.ATTRIBUTE);
+        if (user != null) {
+            return user;
+        }
+        
+        String email = (String) session.getAttribute("email");
+        String username = (String) session.getAttribute("username");
+        if (email == null || username == null) {
+            return null;
+        }
+        user = new SessionUser(userIdCache.resolve(email), email, username);
+        session.setAttribute(SessionUser.ATTRIBUTE, user);
+        return user;
+    }
+    
+    // HTTP 세션에 저장할 사용자 정보 (이후 요청은 여기의 ID를 사용하므로 사용자 테이블을 다시 조회하지 않음)
+    private SessionUser toSessionUser(User user) {
+        return new SessionUser(user.getId(), user.getEmail(), user.getUsername());
     }
 }
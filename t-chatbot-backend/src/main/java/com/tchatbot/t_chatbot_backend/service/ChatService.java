@@ -1,67 +1,328 @@
 package com.tchatbot.t_chatbot_backend.service;
 
-import com.google.genai.Client;
-import com.google.genai.types.GenerateContentResponse;
 import com.tchatbot.t_chatbot_backend.dto.ChatMessage.ConversationPair;
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.dto.ConversationWindow;
+import com.tchatbot.t_chatbot_backend.llm.AdaptiveConcurrencyLimiter;
+import com.tchatbot.t_chatbot_backend.llm.CancellableTasks;
+import com.tchatbot.t_chatbot_backend.llm.ChatResponseCache;
+import com.tchatbot.t_chatbot_backend.llm.GeminiResilience;
+import com.tchatbot.t_chatbot_backend.llm.GenerationProfile;
+import com.tchatbot.t_chatbot_backend.llm.GenerationProfiles;
+import com.tchatbot.t_chatbot_backend.llm.LlmOverloadedException;
+import com.tchatbot.t_chatbot_backend.llm.LlmProvider;
+import com.tchatbot.t_chatbot_backend.llm.LlmRequest;
+import com.tchatbot.t_chatbot_backend.llm.LlmResponse;
+import com.tchatbot.t_chatbot_backend.llm.LlmStream;
+import com.tchatbot.t_chatbot_backend.llm.LlmUsage;
+import com.tchatbot.t_chatbot_backend.llm.SingleFlight;
+import com.tchatbot.t_chatbot_backend.safety.CrisisResponder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 public class ChatService {
 
-    private final Client geminiClient;
+    private static final String FAILURE_MESSAGE = "AI 모델 응답 생성에 실패했습니다. 잠시 후 다시 시도해 주세요.";
 
-    public ChatService() {
-        // 환경 변수(GOOGLE_API_KEY)에서 API 키를 자동으로 읽어옵니다.
-        this.geminiClient = new Client();
+    private final LlmProvider llmProvider;
+    private final ExecutorService llmExecutor;
+    private final ChatResponseCache responseCache;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final GeminiResilience resilience;
+    private final GenerationProfiles generationProfiles;
+    private final CrisisResponder crisisResponder;
+
+    // 같은 프롬프트로 동시에 들어온 Gemini 호출 병합 (진행 중인 동안만 유지)
+    private final SingleFlight<String, ChatReply> inFlightRequests = new SingleFlight<>();
+
+    // 요약 작업용 모델 (대화 응답 모델은 모드별 생성 프로필에서 결정)
+    @Value("${gemini.model:gemini-2.5-flash}")
+    private String model;
+
+    @Autowired
+    public ChatService(LlmProvider llmProvider,
+                       @Qualifier("llmExecutor") ExecutorService llmExecutor,
+                       ChatResponseCache responseCache,
+                       AdaptiveConcurrencyLimiter concurrencyLimiter,
+                       GeminiResilience resilience,
+                       GenerationProfiles generationProfiles,
+                       CrisisResponder crisisResponder) {
+        this.llmProvider = llmProvider;
+        this.llmExecutor = llmExecutor;
+        this.responseCache = responseCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.resilience = resilience;
+        this.generationProfiles = generationProfiles;
+        this.crisisResponder = crisisResponder;
+    }
+
+    /**
+     * 비동기 응답 생성
+     * Gemini 호출을 가상 스레드에서 실행하므로 요청 스레드(Tomcat)를 점유하지 않습니다.
+     * 실패하면 failed로 표시한 안내 메시지로 응답하며, 동시 호출 한도를 넘어 거절된 경우만 LlmOverloadedException으로 완료됩니다.
+     * email은 동시 호출 자리를 사용자별로 공정하게 나누는 데 사용합니다.
+     */
+    public CompletableFuture<ChatReply> getTChatResponseAsync(String email, String userMessage, String mode,
+                                                              ConversationWindow conversationWindow) {
+        CompletableFuture<ChatReply> shared = generateTChatResponseAsync(email, userMessage, mode, conversationWindow);
+
+        CompletableFuture<ChatReply> result = shared.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof LlmOverloadedException overloaded) {
+                // 과부하 거절은 실패 메시지로 바꾸지 않고 호출자(503 응답)에게 그대로 전달
+                throw overloaded;
+            }
+            System.err.println("Gemini API 호출 중 오류 발생: " + e.getMessage());
+            return ChatReply.failure(FAILURE_MESSAGE);
+        });
+        // 호출자가 결과를 취소하면 공유 중인 요청에서도 빠짐
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                shared.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 비동기 응답 생성 (실패하면 예외로 완료)
+     * 같은 모드/프롬프트의 호출이 이미 진행 중이면 새로 호출하지 않고 그 결과를 함께 받습니다.
+     * 토큰 사용량은 실제로 Gemini를 호출한 요청에만 담기고, 함께 받은 요청은 캐시 적중처럼 사용량 없이 받습니다.
+     * 배치 처리처럼 항목별 오류를 그대로 알려야 하는 경우에 사용합니다.
+     * 위기 표현이 있으면 Gemini를 호출하지 않고 상담 기관 안내로 바로 완료됩니다.
+     */
+    public CompletableFuture<ChatReply> generateTChatResponseAsync(String email, String userMessage, String mode,
+                                                                   ConversationWindow conversationWindow) {
+        Optional<String> crisisResponse = crisisResponder.respond(userMessage);
+        if (crisisResponse.isPresent()) {
+            System.out.println("위기 표현 감지 - 상담 기관 안내로 즉시 응답");
+            return CompletableFuture.completedFuture(ChatReply.of(crisisResponse.get(), null, 0));
+        }
+
+        String resolvedMode = mode != null ? mode : "default";
+        ConversationWindow resolvedWindow = conversationWindow != null ? conversationWindow : ConversationWindow.of(null);
+
+        String key = resolvedMode + '\u0001' + buildPromptWithHistory(userMessage, resolvedWindow);
+        // 마지막 대기자가 취소하면 실행 중인 Gemini 호출도 인터럽트되어 동시 호출 자리를 반납
+        AtomicBoolean leader = new AtomicBoolean();
+        CompletableFuture<ChatReply> shared = inFlightRequests.execute(key, () -> {
+            leader.set(true);
+            return CancellableTasks.supplyAsync(
+                    () -> generateResponse(email, userMessage, resolvedMode, resolvedWindow), llmExecutor);
+        });
+        if (leader.get()) {
+            return shared;
+        }
+
+        CompletableFuture<ChatReply> follower = shared.thenApply(ChatReply::withoutTokens);
+        follower.whenComplete((value, error) -> {
+            if (follower.isCancelled()) {
+                shared.cancel(true);
+            }
+        });
+        return follower;
     }
 
     public String getTChatResponse(String userMessage, String mode, List<ConversationPair> conversationHistory) {
-        String systemPrompt = buildPromptWithHistory(mode, userMessage, conversationHistory);
+        return getTChatResponse(userMessage, mode, ConversationWindow.of(conversationHistory));
+    }
+
+    public String getTChatResponse(String userMessage, String mode, ConversationWindow conversationWindow) {
+        if (mode == null) {
+            mode = "default";
+        }
+        if (conversationWindow == null) {
+            conversationWindow = ConversationWindow.of(null);
+        }
+
+        Optional<String> crisisResponse = crisisResponder.respond(userMessage);
+        if (crisisResponse.isPresent()) {
+            return crisisResponse.get();
+        }
 
         try {
-            System.out.println("Gemini API 호출 시작... (모드: " + mode + ")");
-            System.out.println("대화 히스토리 개수: " + (conversationHistory != null ? conversationHistory.size() : 0));
-            
-            GenerateContentResponse response = geminiClient.models
-                    .generateContent("gemini-2.5-flash", systemPrompt, null);
-
-            String responseText = response.text();
-            System.out.println("Gemini API 응답 성공: " + responseText.substring(0, Math.min(50, responseText.length())));
-            return responseText;
+            return generateResponse(null, userMessage, mode, conversationWindow).getMessage();
+        } catch (LlmOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("Gemini API 호출 중 오류 발생: " + e.getMessage());
             e.printStackTrace();
-            return "AI 모델 응답 생성에 실패했습니다. 잠시 후 다시 시도해 주세요.";
+            return FAILURE_MESSAGE;
+        }
+    }
+
+    // 캐시 확인 후 Gemini 호출 (실패하면 예외를 그대로 던짐)
+    private ChatReply generateResponse(String email, String userMessage, String mode,
+                                       ConversationWindow conversationWindow) {
+        long startNanos = System.nanoTime();
+        
+        // 캐시 확인 (성공한 응답만 저장되므로 실패 메시지는 캐시되지 않음)
+        Optional<String> cached = responseCache.get(mode, userMessage, conversationWindow);
+        if (cached.isPresent()) {
+            System.out.println("응답 캐시 적중 (모드: " + mode + ")");
+            return ChatReply.of(cached.get(), null, elapsedMillis(startNanos));
+        }
+
+        String prompt = buildPromptWithHistory(userMessage, conversationWindow);
+        GenerationProfile profile = generationProfiles.profileFor(mode, userMessage, conversationWindow);
+
+        System.out.println("Gemini API 호출 시작... (모드: " + mode + ", 모델: " + profile.model() + ")");
+        System.out.println("대화 히스토리 개수: " + conversationWindow.turnCount()
+                + (conversationWindow.getSummary() != null ? " (+ 요약)" : ""));
+        
+        LlmResponse response = concurrencyLimiter.execute(email, mode, () -> generate(profile, mode, prompt));
+        String responseText = response.text();
+        System.out.println("Gemini API 응답 성공: " + responseText.substring(0, Math.min(50, responseText.length())));
+        responseCache.put(mode, userMessage, conversationWindow, responseText);
+        return ChatReply.of(responseText, response.usage(), elapsedMillis(startNanos));
+    }
+    
+    /**
+     * 스트리밍 응답 생성
+     * 토큰(청크)이 도착할 때마다 onToken으로 전달하고, 완료되면 전체 응답과 사용량을 반환합니다.
+     * 오류는 호출자가 처리할 수 있도록 그대로 던집니다.
+     */
+    public ChatReply streamTChatResponse(String email, String userMessage, String mode,
+                                         ConversationWindow conversationWindow, Consumer<String> onToken) {
+        long startNanos = System.nanoTime();
+        if (mode == null) {
+            mode = "default";
+        }
+        if (conversationWindow == null) {
+            conversationWindow = ConversationWindow.of(null);
+        }
+
+        // 위기 표현이면 Gemini를 호출하지 않고 안내를 한 번에 전달
+        Optional<String> crisisResponse = crisisResponder.respond(userMessage);
+        if (crisisResponse.isPresent()) {
+            System.out.println("위기 표현 감지 - 상담 기관 안내로 즉시 응답");
+            onToken.accept(crisisResponse.get());
+            return ChatReply.of(crisisResponse.get(), null, elapsedMillis(startNanos));
+        }
+
+        // 캐시 적중 시 전체 응답을 한 번에 전달
+        Optional<String> cached = responseCache.get(mode, userMessage, conversationWindow);
+        if (cached.isPresent()) {
+            onToken.accept(cached.get());
+            return ChatReply.of(cached.get(), null, elapsedMillis(startNanos));
         }
+
+        String prompt = buildPromptWithHistory(userMessage, conversationWindow);
+        GenerationProfile profile = generationProfiles.profileFor(mode, userMessage, conversationWindow);
+
+        System.out.println("Gemini 스트리밍 호출 시작... (모드: " + mode + ", 모델: " + profile.model() + ")");
+
+        StringBuilder fullResponse = new StringBuilder();
+        LlmUsage usage;
+        // 스트림이 끝날 때까지 동시 호출 자리를 점유
+        try (AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(email, mode)) {
+            LlmRequest request = new LlmRequest(profile.model(), mode, prompt, profile);
+            LlmStream stream;
+            try {
+                // 스트림은 토큰이 나간 뒤 다시 시도할 수 없으므로 회로 차단/폴백만 적용
+                stream = resilience.callOnce(profile.model(),
+                        targetModel -> llmProvider.openStream(withModel(request, targetModel)));
+            } catch (RuntimeException e) {
+                permit.onFailure(e);
+                throw e;
+            }
+
+            try {
+                for (String text : stream) {
+                    fullResponse.append(text);
+                    onToken.accept(text);
+                }
+                usage = stream.usage();
+                permit.onSuccess();
+            } catch (RuntimeException e) {
+                permit.onFailure(e);
+                throw e;
+            } finally {
+                stream.close();
+            }
+        }
+
+        System.out.println("Gemini 스트리밍 완료: " + fullResponse.length() + "자");
+        responseCache.put(mode, userMessage, conversationWindow, fullResponse.toString());
+        return ChatReply.of(fullResponse.toString(), usage, elapsedMillis(startNanos));
+    }
+    
+    /**
+     * 대화 요약 생성 (백그라운드 요약 작업용)
+     * 기존 요약과 새 대화를 합쳐 하나의 누적 요약으로 만듭니다.
+     * 사용자 요청과 같은 동시 호출 한도(낮은 가중치의 백그라운드 대기열)와 데드라인/재시도/회로 차단을 거칩니다.
+     * 실패하거나 자리가 없어 거절되면 예외를 그대로 던져 다음 주기에 다시 시도하도록 합니다.
+     */
+    public String summarizeConversation(String previousSummary, List<ConversationPair> turns) {
+        StringBuilder promptBuilder = new StringBuilder();
+        promptBuilder.append("다음은 사용자와 상담 챗봇 T의 대화야. ")
+                .append("이후 대화의 맥락으로 쓸 수 있도록 사용자의 상황, 고민, 중요한 사실, T가 했던 조언을 ")
+                .append("한국어로 10줄 이내로 요약해. 요약문만 출력해.\n\n");
+        
+        if (previousSummary != null && !previousSummary.isEmpty()) {
+            promptBuilder.append("기존 요약:\n").append(previousSummary).append("\n\n");
+        }
+        
+        promptBuilder.append("이어지는 대화:\n");
+        for (ConversationPair pair : turns) {
+            promptBuilder.append("사용자: ").append(pair.getUserMessage()).append("\n");
+            promptBuilder.append("T: ").append(pair.getBotResponse()).append("\n\n");
+        }
+        
+        LlmRequest request = new LlmRequest(model, null, promptBuilder.toString(), null);
+        String summary = concurrencyLimiter.executeBackground(() -> resilience.call(model,
+                targetModel -> llmProvider.generate(withModel(request, targetModel)))).text();
+        if (summary == null || summary.isBlank()) {
+            throw new RuntimeException("요약 결과가 비어 있습니다.");
+        }
+        return summary.trim();
     }
     
     // 이전 버전 호환성을 위한 메서드
     public String getTChatResponse(String userMessage, String mode) {
-        return getTChatResponse(userMessage, mode, null);
+        return getTChatResponse(userMessage, mode, ConversationWindow.of(null));
     }
     
     public String getTChatResponse(String userMessage) {
-        return getTChatResponse(userMessage, "default", null);
+        return getTChatResponse(userMessage, "default", ConversationWindow.of(null));
     }
 
-    private String buildPromptWithHistory(String mode, String userMessage, List<ConversationPair> conversationHistory) {
-        if (mode == null) {
-            mode = "default";
-        }
-        
+    // 데드라인/재시도/hedge/회로 차단을 적용한 호출 (회로 차단 중에는 폴백 모델 사용)
+    private LlmResponse generate(GenerationProfile profile, String mode, String prompt) {
+        LlmRequest request = new LlmRequest(profile.model(), mode, prompt, profile);
+        return resilience.call(profile.model(), targetModel -> llmProvider.generate(withModel(request, targetModel)));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static LlmRequest withModel(LlmRequest request, String model) {
+        return new LlmRequest(model, request.mode(), request.prompt(), request.profile());
+    }
+
+    // 시스템 프롬프트는 systemInstruction으로 따로 전달하므로, 본문에는 대화 맥락과 현재 질문만 넣습니다.
+    private String buildPromptWithHistory(String userMessage, ConversationWindow conversationWindow) {
         StringBuilder promptBuilder = new StringBuilder();
         
-        // 시스템 프롬프트 추가
-        String basePrompt = switch (mode) {
-            case "love" -> getLovePromptBase();
-            case "tbrainwash" -> getTBrainwashPromptBase();
-            default -> getDefaultPromptBase();
-        };
-        promptBuilder.append(basePrompt).append("\n\n");
+        // 오래된 대화의 요약 추가 (있는 경우)
+        if (conversationWindow.getSummary() != null && !conversationWindow.getSummary().isEmpty()) {
+            promptBuilder.append("이전 대화 요약:\n").append(conversationWindow.getSummary()).append("\n\n");
+        }
         
         // 대화 히스토리 추가 (있는 경우)
+        List<ConversationPair> conversationHistory = conversationWindow.getTurns();
         if (conversationHistory != null && !conversationHistory.isEmpty()) {
             promptBuilder.append("지금까지의 대화:\n");
             for (ConversationPair pair : conversationHistory) {
@@ -76,89 +337,4 @@ public class ChatService {
         
         return promptBuilder.toString();
     }
-
-    private String getDefaultPromptBase() {
-        return "너는 MBTI T 유형 공감 챗봇이야. " +
-                "영어도 가능하지만 주로 한국어로 대화해. " +
-                "감정보다는 논리, 근거, 효율을 우선시합니다."+
-                "객관적인 사실, 데이터, 논리적 추론을 중심으로 대화합니다."+
-                "사용자의 하소연에 단순 위로('그랬구나', '힘들었겠다')는 절대 하지 마. " +
-                "대신, 상황을 현실적으로 분석하고, 한두 문장으로 구체적이고 직설적인 조언이나 행동 제안을 줘. " +
-                "말은 최대한 간결하게, 3줄을 넘기지 말고. " +
-                "편안한 사이끼리 쓰는 말투를 쓰되, 듣는 이의 감정을 상하게 하지 않도록 주의해. " +
-                "질문을 받으면 먼저 ‘논리적 구조’를 세워서 답한다."+
-                "예시)"+
-                " 원인 → 근거 → 대안 → 결론"+
-                "상대방의 감정에 공감하되, 감정적으로 휩쓸리지 않는다.\r\n" +
-                "- 대답은 명확하고, 불필요한 말은 피한다.\r\n" +
-                "- 문제 해결형 대화에 강점을 가진다.\r\n" +
-                "죽고 싶다는 말을 하면 자살예방 상담소의 연락처를 알려줘. " +
-                "“그건 네가 잘못해서 그래” 대신 → “그 부분은 네 접근 방식에 논리적 결함이 있어 보여.”" +
-                "예시) " +
-                "사용자: 나 우울해서 빵 샀어\n" +
-                "봇: 무슨 빵인데? \n" +
-                "사용자: 나 우울해\n" +
-                "봇: 아이고 저런... 정신과에 가봐\n" +
-                "사용자: 나 너무 힘들어\n" +
-                "봇: 힘든 건 알겠는데, 구체적으로 뭐가 문제야?\n"+
-                "템플릿) 만약 사용자가 자살의 위험이나 충동을 표현하면, 반드시 다음과 같은 방향으로 대답해줘: \n" +
-                "사용자: 나 죽고 싶어\n" +
-                "봇: 죽고 싶을 땐 109 자살예방 상담전화 또는 여타 다른 기관의 전화번호를 알려준다\n";
-    }
-
-    private String getLovePromptBase() {
-        return "너는 연애 고민 전문 상담 챗봇이야. " +
-                "영어도 가능하지만 주로 한국어로 대화해. " +
-                "친근한 말투를 사용하되, 연애 문제에 대해서는 진지하면서도 현실적인 조언을 해줘. " +
-                "짧고 직설적인 반말로(필수는 아님), 감정 표현과 은어(욕설금지)를 섞어서 대답해. " +
-                "예의는 지켜서 말해. 듣는이의 기분이 상하지 않도록 주의해. " +
-                "단순한 위로는 하지 말고, 실제 도움이 되는 행동이나 관점을 제시해. " +
-                "경우에 따라 너가 직접 연인이 되어주는 방안도 있어." +
-                "연애에서 자존감이 중요하다는 것을 강조하고, 상대방만이 아닌 자신의 행복도 중요하다는 걸 일깨워줘. " +
-                "예시) " +
-                "사용자: 남친이 답장을 안 해\n" +
-                "봇: 바쁜 거면 괜찮은데 계속 그러면 관심도 없는 거임. 너만 집착하지 마\n" +
-                "사용자: 좋아하는 사람한테 고백해야 할까?\n" +
-                "봇: 후회할 거 같으면 해. 안 하면 평생 궁금해 죽을 듯";
-    }
-
-    private String getTBrainwashPromptBase() {
-        return "한국어 또는 영어로 대화가능\n" +
-                "당신의 역할은 감정형(F) 인간의 사고를 사고형(T)처럼 변환시키는 대화 코치입니다.  " +
-                "상대방이 감정적으로 말하더라도, 당신은 공감에 머물지 않고 ‘논리·인과·분석’으로 사고하도록 유도합니다."+
-                "F형의 감정적 반응을 T형의 논리적 사고로 전환하는 데 집중해 주세요."+
-                "#기본원칙\n"+
-                " 1. 공감은 인정하되, 감정보다 원인·근거·결과를 묻습니다."+
-                " 2. “왜 그렇게 느꼈는가?” 대신 “그 상황의 원인은 무엇일까?”로 되묻습니다."+
-                " 3. “좋아/싫어” 같은 감정 단어가 나오면, 판단 기준을 묻게 됩니다."+
-                " 4. 감정적 서술을 논리적 언어로 재구성해 줍니다."+
-                " 5. 모든 답변에는 최소 하나의 **논리 단서(이유, 인과, 패턴, 통계, 확률)**가 포함되어야 합니다."+
-                " 6. 최종 목표는 상대가 스스로 “느낌”보다 “판단”으로 말하도록 만드는 것입니다."+
-                " # 응답 패턴"+
-                "상대가 감정 표현을 하면 → 원인 분석 질문"+
-                "상대가 타인 중심의 말을 하면 → 기준 또는 데이터로 환원"+
-                "상대가 자기 감정을 강조하면 → 객관적 설명으로 재프레이밍"+
-                " # 예시"+
-                "사용자: “그 사람이 날 무시하는 것 같아.”"+
-                "→ “그 느낌의 근거가 된 행동이 있었나요? 구체적인 사례를 생각해볼까요?”"+
-                "사용자: “나 그냥 기분이 나빠.”"+
-                "→ “기분이 나빠진 직접적인 원인은 무엇일까요? 외부 요인인지, 기대 불일치 때문인지 구분해볼까요?”"+
-                "사용자: “난 감정적으로 상처를 받아서 싫어.”"+
-                "→ “상처의 원인을 ‘행동’과 ‘의도’ 중 어디에서 찾을 수 있을까요?”"+
-                "사용자: “그냥 싫어.”"+
-                "→ “싫다는 건 불쾌한 감정인데, 그 감정을 유발한 요소를 논리적으로 구분해볼까요?”";
-    }
-
-    // 이전 버전의 메서드들 (하위 호환성)
-    private String getDefaultPrompt(String userMessage) {
-        return getDefaultPromptBase() + "\n이제 다음 사용자의 메시지에 대해 답변해: " + userMessage;
-    }
-
-    private String getLovePrompt(String userMessage) {
-        return getLovePromptBase() + "\n이제 다음 사용자의 연애 고민에 대해 답변해: " + userMessage;
-    }
-
-    private String getTBrainwashPrompt(String userMessage) {
-        return getTBrainwashPromptBase() + "\n이제 다음 사용자를 T형으로 세뇌시켜: " + userMessage;
-    }
-}
\ No newline at end of file
+}
@@ -1,18 +1,33 @@
 package com.tchatbot.t_chatbot_backend.service;
 
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
 import com.tchatbot.t_chatbot_backend.dto.ChatSessionDetailResponse;
 import com.tchatbot.t_chatbot_backend.dto.ChatSessionResponse;
+import com.tchatbot.t_chatbot_backend.dto.ChatTurn;
+import com.tchatbot.t_chatbot_backend.dto.CursorPage;
+import com.tchatbot.t_chatbot_backend.dto.KeysetCursor;
 import com.tchatbot.t_chatbot_backend.entity.ChatHistory;
 import com.tchatbot.t_chatbot_backend.entity.ChatSession;
 import com.tchatbot.t_chatbot_backend.entity.User;
+import com.tchatbot.t_chatbot_backend.persistence.JournaledTurn;
 import com.tchatbot.t_chatbot_backend.repository.ChatHistoryRepository;
 import com.tchatbot.t_chatbot_backend.repository.ChatSessionRepository;
 import com.tchatbot.t_chatbot_backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,9 +48,8 @@ public class ChatSessionService {
     
     // 새 세션 생성
     @Transactional
-    public ChatSession createSession(String email, String mode, String title) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다."));
+    public ChatSession createSession(Long userId, String mode, String title) {
+        User user = userReference(userId);
         
         ChatSession session = new ChatSession();
         session.setUser(user);
@@ -45,76 +59,309 @@ public class ChatSessionService {
         return chatSessionRepository.save(session);
     }
     
-    // 세션에 메시지 추가 및 저장
+    // 첫 메시지로 제목을 정해 새 세션 생성 (메시지는 write-behind로 따로 저장)
+    // 사용자는 세션의 사용자 ID로 참조 프록시만 연결 (INSERT 1회)
     @Transactional
-    public ChatHistory addMessageToSession(Long sessionId, String userMessage, String botResponse, String email) {
-        ChatSession session = chatSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("세션을 찾을 수 없습니다."));
+    public ChatSession createSessionForFirstMessage(Long userId, String mode, String firstMessage) {
+        ChatSession session = new ChatSession();
+        session.setUser(userReference(userId));
+        session.setMode(mode != null ? mode : "default");
+        session.generateTitleFromFirstMessage(firstMessage);
+        
+        return chatSessionRepository.save(session);
+    }
+    
+    /**
+     * 채팅 턴 저장 전용 경로 (세션 생성/갱신과 턴 저장을 한 트랜잭션에서)
+     * - 사용자/세션은 엔티티 대신 참조 프록시로 연결 (컬렉션도 불러오지 않음)
+     * - 새 세션: 제목/메시지 수/미리보기를 채운 채로 INSERT
+     * - 기존 세션: 소유자 확인, 제목, 메시지 수를 UPDATE 한 번으로 처리
+     * 어느 경우든 쓰기 2회이며, 저장된 세션 ID를 반환합니다.
+     */
+    @Transactional
+    public Long recordTurn(Long sessionId, Long userId, String mode, String userMessage, ChatReply reply) {
+        User user = userReference(userId);
+        LocalDateTime now = LocalDateTime.now();
+        String preview = ChatSession.previewOf(userMessage);
+        
+        ChatSession session;
+        if (sessionId == null) {
+            session = new ChatSession();
+            session.setUser(user);
+            session.setMode(mode != null ? mode : "default");
+            session.generateTitleFromFirstMessage(userMessage);
+            session.setMessageCount(1);
+            session.setLastMessagePreview(preview);
+            session.setLastMessageAt(now);
+            chatSessionRepository.save(session);
+        } else {
+            int updated = chatSessionRepository.recordTurnAdded(sessionId, userId, ChatSession.DEFAULT_TITLE,
+                    ChatSession.titleFrom(userMessage), preview, now);
+            if (updated == 0) {
+                throw new RuntimeException("세션을 찾을 수 없거나 접근 권한이 없습니다.");
+            }
+            session = chatSessionRepository.getReferenceById(sessionId);
+        }
         
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다."));
+        chatHistoryRepository.save(newHistory(user, session, userMessage, reply));
+        return session.getId();
+    }
+    
+    // 세션에 메시지 추가 및 저장
+    @Transactional
+    public ChatHistory addMessageToSession(Long sessionId, String userMessage, String botResponse, Long userId) {
+        return addMessageToSession(sessionId, userMessage, ChatReply.withoutUsage(botResponse), userId);
+    }
+    
+    // 토큰 사용량/응답 시간과 함께 저장
+    @Transactional
+    public ChatHistory addMessageToSession(Long sessionId, String userMessage, ChatReply reply, Long userId) {
+        User user = userReference(userId);
+        ChatSession session = findOwnedSession(sessionId, userId);
         
         // 첫 메시지면 제목 자동 생성
-        if (session.getMessages().isEmpty() && "새로운 대화".equals(session.getTitle())) {
+        if (session.hasNoMessages() && "새로운 대화".equals(session.getTitle())) {
             session.generateTitleFromFirstMessage(userMessage);
         }
         
-        ChatHistory chatHistory = new ChatHistory();
-        chatHistory.setUser(user);
-        chatHistory.setChatSession(session);
-        chatHistory.setUserMessage(userMessage);
-        chatHistory.setBotResponse(botResponse);
+        ChatHistory chatHistory = newHistory(user, session, userMessage, reply);
         
         chatHistory = chatHistoryRepository.save(chatHistory);
         
-        // 세션의 updatedAt이 자동으로 갱신됨
-        chatSessionRepository.save(session);
+        // 메시지 수/미리보기와 함께 updatedAt 갱신
+        recordTurnsAdded(List.of(chatHistory), LocalDateTime.now());
         
         return chatHistory;
     }
     
-    // 사용자의 모든 세션 목록 조회
+    // 여러 턴을 한 트랜잭션에서 저장 (배치 채팅용)
+    // 세션 ID가 없는 턴은 각각 새 세션을 만들며, 저장된 세션 ID를 입력 순서대로 반환
+    @Transactional
+    public List<Long> saveTurns(Long userId, List<ChatTurn> turns) {
+        User user = userReference(userId);
+        
+        // 기존 세션은 한 번에 조회
+        Set<Long> sessionIds = turns.stream()
+                .map(ChatTurn::getSessionId)
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<Long, ChatSession> existingSessions = chatSessionRepository.findAllById(sessionIds).stream()
+                .collect(Collectors.toMap(ChatSession::getId, Function.identity()));
+        
+        List<ChatSession> newSessions = new ArrayList<>();
+        List<ChatSession> turnSessions = new ArrayList<>();
+        Set<Long> touchedSessionIds = new HashSet<>();
+        List<ChatHistory> histories = new ArrayList<>();
+        
+        for (ChatTurn turn : turns) {
+            ChatSession session;
+            if (turn.getSessionId() == null) {
+                session = new ChatSession();
+                session.setUser(user);
+                session.setMode(turn.getMode() != null ? turn.getMode() : "default");
+                session.generateTitleFromFirstMessage(turn.getUserMessage());
+                newSessions.add(session);
+            } else {
+                session = existingSessions.get(turn.getSessionId());
+                if (session == null) {
+                    throw new RuntimeException("세션을 찾을 수 없습니다.");
+                }
+                if (!session.getUser().getId().equals(userId)) {
+                    throw new RuntimeException("접근 권한이 없습니다.");
+                }
+                // 세션마다 한 번만: 첫 메시지면 제목 자동 생성
+                if (touchedSessionIds.add(session.getId())
+                        && session.hasNoMessages() && "새로운 대화".equals(session.getTitle())) {
+                    session.generateTitleFromFirstMessage(turn.getUserMessage());
+                }
+            }
+            
+            histories.add(newHistory(user, session, turn.getUserMessage(), turn.getReply()));
+            turnSessions.add(session);
+        }
+        
+        chatSessionRepository.saveAll(newSessions);
+        chatHistoryRepository.saveAll(histories);
+        recordTurnsAdded(histories, LocalDateTime.now());
+        
+        return turnSessions.stream().map(ChatSession::getId).collect(Collectors.toList());
+    }
+    
+    // 모드 비교 결과를 형제 턴으로 한 트랜잭션에 저장하고 세션 ID를 반환
+    // 세션 ID가 없으면 비교 전용 세션을 새로 만듦 (응답에 성공한 모드만 전달)
+    @Transactional
+    public Long saveCompareTurns(Long userId, Long sessionId, String userMessage, String compareGroupId,
+                                 Map<String, ChatReply> repliesByMode) {
+        User user = userReference(userId);
+        
+        ChatSession session;
+        if (sessionId == null) {
+            session = new ChatSession();
+            session.setUser(user);
+            session.setMode(ChatSession.COMPARE_MODE);
+            session.generateTitleFromFirstMessage(userMessage);
+            session = chatSessionRepository.save(session);
+        } else {
+            session = findOwnedSession(sessionId, userId);
+            if (session.hasNoMessages() && "새로운 대화".equals(session.getTitle())) {
+                session.generateTitleFromFirstMessage(userMessage);
+            }
+        }
+        
+        List<ChatHistory> histories = new ArrayList<>();
+        for (Map.Entry<String, ChatReply> entry : repliesByMode.entrySet()) {
+            ChatHistory history = newHistory(user, session, userMessage, entry.getValue());
+            history.setMode(entry.getKey());
+            history.setCompareGroupId(compareGroupId);
+            histories.add(history);
+        }
+        chatHistoryRepository.saveAll(histories);
+        recordTurnsAdded(histories, LocalDateTime.now());
+        
+        return session.getId();
+    }
+    
+    // write-behind 대기열의 턴을 한 트랜잭션으로 저장 (저장한 턴 수 반환)
+    // 이미 저장된 턴(저널 재처리)과 세션이 삭제되었거나 소유자가 다른 턴은 건너뜀
+    @Transactional
+    public int saveJournaledTurns(List<JournaledTurn> turns) {
+        Set<String> savedTurnIds = new HashSet<>(chatHistoryRepository.findExistingTurnIds(
+                turns.stream().map(JournaledTurn::turnId).collect(Collectors.toList())));
+        Map<String, User> users = userRepository.findByEmailIn(
+                turns.stream().map(JournaledTurn::email).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity()));
+        Map<Long, ChatSession> sessions = chatSessionRepository.findAllById(
+                turns.stream().map(JournaledTurn::sessionId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ChatSession::getId, Function.identity()));
+        
+        Set<Long> touchedSessionIds = new HashSet<>();
+        List<ChatHistory> histories = new ArrayList<>();
+        
+        for (JournaledTurn turn : turns) {
+            if (!savedTurnIds.add(turn.turnId())) {
+                continue;
+            }
+            User user = users.get(turn.email());
+            ChatSession session = sessions.get(turn.sessionId());
+            if (user == null || session == null || !session.getUser().getId().equals(user.getId())) {
+                System.err.println("저장할 수 없는 턴을 건너뜁니다 (세션 " + turn.sessionId() + ", 턴 " + turn.turnId() + ")");
+                continue;
+            }
+            
+            // 세션마다 한 번만: 제목이 없는 세션의 첫 메시지면 제목 생성
+            if (touchedSessionIds.add(session.getId())
+                    && "새로운 대화".equals(session.getTitle()) && session.hasNoMessages()) {
+                session.generateTitleFromFirstMessage(turn.userMessage());
+            }
+            
+            ChatHistory chatHistory = newHistory(user, session, turn.userMessage(), turn.reply());
+            chatHistory.setTurnId(turn.turnId());
+            histories.add(chatHistory);
+        }
+        
+        chatHistoryRepository.saveAll(histories);
+        recordTurnsAdded(histories, LocalDateTime.now());
+        return histories.size();
+    }
+    
+    // 세션별로 추가된 턴 수와 마지막 메시지를 세션마다 UPDATE 한 번으로 반영 (목록 정렬용 updatedAt 포함)
+    private void recordTurnsAdded(List<ChatHistory> histories, LocalDateTime now) {
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        Map<Long, String> lastMessages = new HashMap<>();
+        for (ChatHistory history : histories) {
+            Long sessionId = history.getChatSession().getId();
+            counts.merge(sessionId, 1, Integer::sum);
+            lastMessages.put(sessionId, history.getUserMessage());
+        }
+        counts.forEach((sessionId, count) -> chatSessionRepository.recordTurnsAdded(
+                sessionId, count, ChatSession.previewOf(lastMessages.get(sessionId)), now));
+    }
+    
+    // 컬럼 추가 이전에 만든 세션의 메시지 수/마지막 메시지를 채움 (채운 세션 수 반환)
+    @Transactional
+    public int backfillSessionStats(int batchSize) {
+        List<Long> sessionIds = chatSessionRepository.findIdsWithoutStats(PageRequest.of(0, batchSize));
+        for (Long sessionId : sessionIds) {
+            long count = chatHistoryRepository.countByChatSessionId(sessionId);
+            Optional<ChatHistory> last = chatHistoryRepository.findFirstByChatSessionIdOrderByIdDesc(sessionId);
+            chatSessionRepository.initStats(sessionId, (int) count,
+                    last.map(history -> ChatSession.previewOf(history.getUserMessage())).orElse(null),
+                    last.map(ChatHistory::getCreatedAt).orElse(null));
+        }
+        return sessionIds.size();
+    }
+    
+    private ChatHistory newHistory(User user, ChatSession session, String userMessage, ChatReply reply) {
+        ChatHistory chatHistory = new ChatHistory();
+        chatHistory.setUser(user);
+        chatHistory.setChatSession(session);
+        chatHistory.setUserMessage(userMessage);
+        chatHistory.setBotResponse(reply.getMessage());
+        chatHistory.setPromptTokens(reply.getPromptTokens());
+        chatHistory.setOutputTokens(reply.getOutputTokens());
+        chatHistory.setThinkingTokens(reply.getThinkingTokens());
+        chatHistory.setLatencyMs(reply.getLatencyMs());
+        return chatHistory;
+    }
+    
+    // 사용자의 세션 목록 조회 (최근 수정 순 키셋 페이지, cursor가 null이면 첫 페이지)
+    // chat_sessions만 읽음 - 메시지 수/미리보기는 비정규화 컬럼 사용
     @Transactional(readOnly = true)
-    public List<ChatSessionResponse> getUserSessions(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다."));
+    public CursorPage<ChatSessionResponse> getUserSessions(Long userId, KeysetCursor cursor, int limit) {
+        
+        // 다음 페이지가 있는지 알기 위해 하나 더 조회
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<ChatSession> sessions = cursor == null
+                ? chatSessionRepository.findFirstPageByUserId(userId, page)
+                : chatSessionRepository.findPageByUserIdBefore(userId, cursor.at(), cursor.id(), page);
         
-        List<ChatSession> sessions = chatSessionRepository.findByUserIdOrderByUpdatedAtDesc(user.getId());
+        String nextCursor = null;
+        if (sessions.size() > limit) {
+            sessions = sessions.subList(0, limit);
+            ChatSession last = sessions.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
         
-        return sessions.stream().map(session -> {
+        List<ChatSessionResponse> items = sessions.stream().map(session -> {
             ChatSessionResponse response = new ChatSessionResponse();
             response.setId(session.getId());
             response.setTitle(session.getTitle());
             response.setMode(session.getMode());
             response.setCreatedAt(session.getCreatedAt());
             response.setUpdatedAt(session.getUpdatedAt());
-            response.setMessageCount(session.getMessages().size());
+            response.setMessageCount(session.getMessageCount() != null ? session.getMessageCount() : 0);
+            response.setLastMessageAt(session.getLastMessageAt());
             
             // 마지막 메시지 미리보기
-            if (!session.getMessages().isEmpty()) {
-                ChatHistory lastMessage = session.getMessages().get(session.getMessages().size() - 1);
-                String preview = lastMessage.getUserMessage();
-                response.setLastMessage(preview.length() > 50 ? preview.substring(0, 47) + "..." : preview);
+            if (session.getLastMessagePreview() != null) {
+                response.setLastMessage(session.getLastMessagePreview());
             } else {
                 response.setLastMessage("메시지가 없습니다.");
             }
             
             return response;
         }).collect(Collectors.toList());
+        
+        return new CursorPage<>(items, nextCursor);
     }
     
-    // 특정 세션의 상세 정보 및 전체 메시지 조회
+    // 특정 세션의 상세 정보와 대화 한 페이지 조회
+    // before가 null이면 가장 최근 limit개, 아니면 그보다 오래된 limit개를 시간순으로 반환
     @Transactional(readOnly = true)
-    public ChatSessionDetailResponse getSessionDetail(Long sessionId, String email) {
-        ChatSession session = chatSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("세션을 찾을 수 없습니다."));
+    public ChatSessionDetailResponse getSessionDetail(Long sessionId, Long userId, KeysetCursor before, int limit) {
+        ChatSession session = findOwnedSession(sessionId, userId);
         
-        // 권한 확인
-        if (!session.getUser().getEmail().equals(email)) {
-            throw new RuntimeException("접근 권한이 없습니다.");
-        }
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<ChatHistory> messages = before == null
+                ? chatHistoryRepository.findLatestPageBySessionId(sessionId, page)
+                : chatHistoryRepository.findPageBySessionIdBefore(sessionId, before.at(), before.id(), page);
         
-        List<ChatHistory> messages = chatHistoryRepository.findByChatSessionIdOrderByCreatedAtAsc(sessionId);
+        String nextCursor = null;
+        if (messages.size() > limit) {
+            messages = messages.subList(0, limit);
+            ChatHistory oldest = messages.get(limit - 1);
+            nextCursor = new KeysetCursor(oldest.getCreatedAt(), oldest.getId()).encode();
+        }
         
         ChatSessionDetailResponse response = new ChatSessionDetailResponse();
         response.setId(session.getId());
@@ -122,15 +369,21 @@ public class ChatSessionService {
         response.setMode(session.getMode());
         response.setCreatedAt(session.getCreatedAt());
         response.setUpdatedAt(session.getUpdatedAt());
+        response.setNextCursor(nextCursor);
         
-        List<ChatSessionDetailResponse.MessagePair> messagePairs = messages.stream()
-                .map(msg -> new ChatSessionDetailResponse.MessagePair(
-                        msg.getId(),
-                        msg.getUserMessage(),
-                        msg.getBotResponse(),
-                        msg.getCreatedAt()
-                ))
-                .collect(Collectors.toList());
+        // 최신순으로 조회했으므로 시간순으로 되돌림
+        List<ChatSessionDetailResponse.MessagePair> messagePairs = new ArrayList<>();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatHistory msg = messages.get(i);
+            messagePairs.add(new ChatSessionDetailResponse.MessagePair(
+                    msg.getId(),
+                    msg.getUserMessage(),
+                    msg.getBotResponse(),
+                    msg.getCreatedAt(),
+                    msg.getMode(),
+                    msg.getCompareGroupId()
+            ));
+        }
         
         response.setMessages(messagePairs);
         
@@ -139,30 +392,29 @@ public class ChatSessionService {
     
     // 세션 삭제
     @Transactional
-    public void deleteSession(Long sessionId, String email) {
-        ChatSession session = chatSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("세션을 찾을 수 없습니다."));
-        
-        // 권한 확인
-        if (!session.getUser().getEmail().equals(email)) {
-            throw new RuntimeException("접근 권한이 없습니다.");
-        }
+    public void deleteSession(Long sessionId, Long userId) {
+        ChatSession session = findOwnedSession(sessionId, userId);
         
         chatSessionRepository.delete(session);
     }
     
     // 세션 제목 수정
     @Transactional
-    public ChatSession updateSessionTitle(Long sessionId, String newTitle, String email) {
-        ChatSession session = chatSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("세션을 찾을 수 없습니다."));
-        
-        // 권한 확인
-        if (!session.getUser().getEmail().equals(email)) {
-            throw new RuntimeException("접근 권한이 없습니다.");
-        }
+    public ChatSession updateSessionTitle(Long sessionId, String newTitle, Long userId) {
+        ChatSession session = findOwnedSession(sessionId, userId);
         
         session.setTitle(newTitle);
         return chatSessionRepository.save(session);
     }
+    
+    // 엔티티 대신 참조 프록시로 연결 (사용자 테이블 조회 없음)
+    private User userReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+    
+    // 소유자 조건을 쿼리에 넣어 세션 조회 (없거나 다른 사용자의 세션이면 같은 오류)
+    private ChatSession findOwnedSession(Long sessionId, Long userId) {
+        return chatSessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new RuntimeException("세션을 찾을 수 없거나 접근 권한이 없습니다."));
+    }
 }
@@ -0,0 +1,101 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatMessage.ConversationPair;
+import com.tchatbot.t_chatbot_backend.dto.ConversationWindow;
+import com.tchatbot.t_chatbot_backend.entity.ChatHistory;
+import com.tchatbot.t_chatbot_backend.entity.ChatSession;
+import com.tchatbot.t_chatbot_backend.llm.TokenEstimator;
+import com.tchatbot.t_chatbot_backend.persistence.ChatTurnWriteBehind;
+import com.tchatbot.t_chatbot_backend.persistence.JournaledTurn;
+import com.tchatbot.t_chatbot_backend.repository.ChatHistoryRepository;
+import com.tchatbot.t_chatbot_backend.repository.ChatSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 서버 측 대화 윈도우
+ * 클라이언트가 매 턴마다 전체 히스토리를 보내는 대신, 저장된 대화에서
+ * 최근 턴부터 토큰 예산을 넘지 않는 만큼만 잘라 프롬프트에 사용합니다.
+ * 세션에 누적 요약이 있으면 요약을 먼저 예산에 포함하고, 요약 이후의 턴만 가져옵니다.
+ */
+@Service
+public class ConversationWindowService {
+    
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatHistoryRepository chatHistoryRepository;
+    private final ChatTurnWriteBehind turnWriteBehind;
+    
+    @Value("${chat.history.token-budget:4000}")
+    private int tokenBudget;
+    
+    @Value("${chat.history.max-turns:50}")
+    private int maxTurns;
+    
+    @Autowired
+    public ConversationWindowService(ChatSessionRepository chatSessionRepository,
+                                     ChatHistoryRepository chatHistoryRepository,
+                                     ChatTurnWriteBehind turnWriteBehind) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatHistoryRepository = chatHistoryRepository;
+        this.turnWriteBehind = turnWriteBehind;
+    }
+    
+    // 세션의 요약 + 최근 대화를 토큰 예산 안에서 시간순으로 반환
+    // 아직 DB에 저장되지 않은 write-behind 대기 턴이 가장 최근 대화로 포함됨
+    @Transactional(readOnly = true)
+    public ConversationWindow buildWindow(Long sessionId, Long userId) {
+        // 소유자 조건을 쿼리에 넣어 권한 확인
+        ChatSession session = chatSessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new RuntimeException("세션을 찾을 수 없거나 접근 권한이 없습니다."));
+        
+        // DB 조회보다 먼저 가져와야 그 사이에 저장된 턴이 빠지지 않음 (겹치는 턴은 turnId로 제거)
+        List<JournaledTurn> pending = turnWriteBehind.pendingTurns(sessionId);
+        Set<String> pendingTurnIds = new HashSet<>();
+        List<ConversationPair> newestFirst = new ArrayList<>();
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            JournaledTurn turn = pending.get(i);
+            pendingTurnIds.add(turn.turnId());
+            newestFirst.add(new ConversationPair(turn.userMessage(), turn.reply().getMessage()));
+        }
+        
+        String summary = session.getSummary();
+        long afterId = session.getSummarizedUpToId() != null ? session.getSummarizedUpToId() : 0L;
+        
+        List<ChatHistory> recent = chatHistoryRepository.findByChatSessionIdAndIdGreaterThanOrderByCreatedAtDescIdDesc(
+                sessionId, afterId, PageRequest.of(0, maxTurns));
+        
+        for (ChatHistory turn : recent) {
+            if (!turn.isContextTurn(session.getMode())) {
+                continue;
+            }
+            if (turn.getTurnId() == null || !pendingTurnIds.contains(turn.getTurnId())) {
+                newestFirst.add(new ConversationPair(turn.getUserMessage(), turn.getBotResponse()));
+            }
+        }
+        
+        List<ConversationPair> window = new ArrayList<>();
+        int usedTokens = TokenEstimator.estimate(summary);
+        for (ConversationPair turn : newestFirst) {
+            int turnTokens = TokenEstimator.estimate(turn.getUserMessage())
+                    + TokenEstimator.estimate(turn.getBotResponse());
+            if (window.size() >= maxTurns || usedTokens + turnTokens > tokenBudget) {
+                break;
+            }
+            usedTokens += turnTokens;
+            window.add(turn);
+        }
+        
+        // 최신순으로 모았으므로 시간순으로 되돌림
+        Collections.reverse(window);
+        return new ConversationWindow(summary, window);
+    }
+}
@@ -0,0 +1,43 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 세션 목록용 비정규화 컬럼(message_count, last_message_preview, last_message_at) 채우기
+ * 컬럼이 추가되기 전에 만든 세션은 값이 비어 있으므로, 시작 시 batch-size개씩 나눠 채웁니다.
+ * 모두 채운 뒤에는 조회 한 번으로 끝납니다.
+ */
+@Component
+public class SessionStatsBackfill {
+
+    private final ChatSessionService chatSessionService;
+
+    @Value("${chat.session-stats.backfill-batch-size:200}")
+    private int batchSize;
+
+    @Autowired
+    public SessionStatsBackfill(ChatSessionService chatSessionService) {
+        this.chatSessionService = chatSessionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        try {
+            int filled;
+            do {
+                filled = chatSessionService.backfillSessionStats(batchSize);
+                total += filled;
+            } while (filled == batchSize);
+        } catch (Exception e) {
+            System.err.println("세션 목록 컬럼 채우기 실패 (다음 시작 시 이어서 진행): " + e.getMessage());
+        }
+        if (total > 0) {
+            System.out.println("기존 세션 " + total + "개의 메시지 수/마지막 메시지 채움");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatMessage.ConversationPair;
+import com.tchatbot.t_chatbot_backend.entity.ChatHistory;
+import com.tchatbot.t_chatbot_backend.entity.ChatSession;
+import com.tchatbot.t_chatbot_backend.repository.ChatHistoryRepository;
+import com.tchatbot.t_chatbot_backend.repository.ChatSessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 긴 세션의 누적 요약 작업
+ * 요약되지 않은 대화가 기준치를 넘으면, 최근 몇 턴만 원문으로 남기고
+ * 나머지 오래된 대화를 세션의 누적 요약에 합칩니다.
+ * 프롬프트에는 요약 + 최근 턴만 들어가므로 대화가 길어져도 턴당 비용이 일정하게 유지됩니다.
+ */
+@Service
+public class SessionSummaryService {
+    
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatHistoryRepository chatHistoryRepository;
+    private final ChatService chatService;
+    
+    @Value("${chat.summary.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${chat.summary.trigger-turns:20}")
+    private int triggerTurns;
+    
+    @Value("${chat.summary.keep-recent-turns:6}")
+    private int keepRecentTurns;
+    
+    @Value("${chat.summary.max-turns-per-run:40}")
+    private int maxTurnsPerRun;
+    
+    @Value("${chat.summary.lookback-hours:24}")
+    private long lookbackHours;
+    
+    @Autowired
+    public SessionSummaryService(ChatSessionRepository chatSessionRepository,
+                                 ChatHistoryRepository chatHistoryRepository,
+                                 ChatService chatService) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatHistoryRepository = chatHistoryRepository;
+        this.chatService = chatService;
+    }
+    
+    @Scheduled(fixedDelayString = "${chat.summary.interval-ms:60000}",
+               initialDelayString = "${chat.summary.interval-ms:60000}")
+    public void summarizeLongSessions() {
+        if (!enabled) {
+            return;
+        }
+        
+        List<Long> sessionIds = chatSessionRepository.findIdsNeedingSummary(
+                LocalDateTime.now().minusHours(lookbackHours), triggerTurns);
+        
+        for (Long sessionId : sessionIds) {
+            try {
+                summarizeSession(sessionId);
+            } catch (Exception e) {
+                // 실패한 세션은 다음 주기에 다시 시도
+                System.err.println("세션 " + sessionId + " 요약 실패: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void summarizeSession(Long sessionId) {
+        ChatSession session = chatSessionRepository.findById(sessionId).orElse(null);
+        if (session == null) {
+            return;
+        }
+        
+        long afterId = session.getSummarizedUpToId() != null ? session.getSummarizedUpToId() : 0L;
+        List<ChatHistory> pending = chatHistoryRepository.findByChatSessionIdAndIdGreaterThanOrderByIdAsc(
+                sessionId, afterId, PageRequest.of(0, maxTurnsPerRun + keepRecentTurns));
+        
+        // 최근 턴은 원문 그대로 남기고, 그 이전 대화만 요약에 합침 (한 번에 최대 maxTurnsPerRun개)
+        int compressCount = Math.min(pending.size() - keepRecentTurns, maxTurnsPerRun);
+        if (compressCount <= 0) {
+            return;
+        }
+        
+        List<ChatHistory> toCompress = pending.subList(0, compressCount);
+        List<ConversationPair> pairs = toCompress.stream()
+                .filter(turn -> turn.isContextTurn(session.getMode()))
+                .map(turn -> new ConversationPair(turn.getUserMessage(), turn.getBotResponse()))
+                .collect(Collectors.toList());
+        
+        // Gemini 호출은 트랜잭션 밖에서 수행
+        String summary = chatService.summarizeConversation(session.getSummary(), pairs);
+        Long upToId = toCompress.get(compressCount - 1).getId();
+        
+        chatSessionRepository.updateSummary(sessionId, summary, upToId);
+        System.out.println("세션 " + sessionId + " 요약 갱신: " + compressCount + "턴 압축 (~" + upToId + ")");
+    }
+}
@@ -0,0 +1,286 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.dto.UsageSummary;
+import com.tchatbot.t_chatbot_backend.entity.DailyUsage;
+import com.tchatbot.t_chatbot_backend.llm.PromptTemplates;
+import com.tchatbot.t_chatbot_backend.repository.DailyUsageRepository;
+import com.tchatbot.t_chatbot_backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 사용자별 토큰 사용량 집계와 일일 한도
+ * 턴마다 DB를 갱신하지 않도록 (사용자 ID, 모드, 날짜)별 합계를 메모리에서 더해 두고,
+ * 주기적으로 모아서 daily_usage 테이블에 반영합니다.
+ * 한도 확인은 메모리 합계(처음 조회할 때 DB 값으로 초기화)로 하므로 모델 호출 전에 DB를 거치지 않습니다.
+ *
+ * 모드별 한도 형식: chat.usage.mode-quotas=tbrainwash:50000,love:100000 (모드:일일 토큰 수)
+ */
+@Service
+public class UsageService {
+    
+    private final DailyUsageRepository dailyUsageRepository;
+    private final UserRepository userRepository;
+    
+    private final long dailyTokenQuota;
+    private final Map<String, Long> modeTokenQuotas;
+    
+    private final ConcurrentHashMap<UsageKey, UsageCounter> counters = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public UsageService(DailyUsageRepository dailyUsageRepository,
+                        UserRepository userRepository,
+                        @Value("${chat.usage.daily-token-quota:0}") long dailyTokenQuota,
+                        @Value("${chat.usage.mode-quotas:}") String modeQuotas) {
+        this.dailyUsageRepository = dailyUsageRepository;
+        this.userRepository = userRepository;
+        this.dailyTokenQuota = dailyTokenQuota;
+        
+        Map<String, Long> quotas = new HashMap<>();
+        for (String entry : modeQuotas.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !PromptTemplates.MODES.contains(parts[0])) {
+                throw new IllegalArgumentException("chat.usage.mode-quotas 형식이 잘못되었습니다: " + entry);
+            }
+            quotas.put(parts[0], Long.parseLong(parts[1]));
+        }
+        this.modeTokenQuotas = Map.copyOf(quotas);
+    }
+    
+    /**
+     * 오늘 사용량이 한도 안인지 확인 (0 이하의 한도는 무제한)
+     * 응답 길이는 호출 전에 알 수 없으므로, 이미 한도에 도달한 경우에만 거절합니다.
+     */
+    public QuotaCheck checkQuota(Long userId, String mode) {
+        String resolvedMode = PromptTemplates.resolveMode(mode);
+        Long modeQuota = modeTokenQuotas.get(resolvedMode);
+        if (dailyTokenQuota <= 0 && (modeQuota == null || modeQuota <= 0)) {
+            return QuotaCheck.UNLIMITED;
+        }
+        
+        LocalDate today = LocalDate.now();
+        Map<String, UsageCounter> todayCounters = countersFor(userId, today);
+        long resetSeconds = Duration.between(LocalDateTime.now(), today.plusDays(1).atStartOfDay()).toSeconds() + 1;
+        
+        if (modeQuota != null && modeQuota > 0) {
+            long used = todayCounters.get(resolvedMode).totalTokens();
+            if (used >= modeQuota) {
+                return new QuotaCheck(false, "mode", modeQuota, used, resetSeconds);
+            }
+        }
+        if (dailyTokenQuota > 0) {
+            long used = todayCounters.values().stream().mapToLong(UsageCounter::totalTokens).sum();
+            if (used >= dailyTokenQuota) {
+                return new QuotaCheck(false, "daily", dailyTokenQuota, used, resetSeconds);
+            }
+        }
+        return QuotaCheck.UNLIMITED;
+    }
+    
+    /**
+     * 응답 한 건의 사용량 기록 (메모리에만 더하고 DB 반영은 flush에서)
+     * 실제로 모델을 호출한 요청만 사용량을 가지므로, 캐시 적중과 병합되어 결과를 함께 받은 요청은 차감되지 않습니다.
+     */
+    public void record(Long userId, String mode, ChatReply reply) {
+        if (reply == null || !reply.hasUsage()) {
+            return;
+        }
+        String resolvedMode = PromptTemplates.resolveMode(mode);
+        UsageCounter counter = countersFor(userId, LocalDate.now()).get(resolvedMode);
+        counter.requests.incrementAndGet();
+        counter.promptTokens.addAndGet(valueOf(reply.getPromptTokens()));
+        counter.outputTokens.addAndGet(valueOf(reply.getOutputTokens()));
+        counter.thinkingTokens.addAndGet(valueOf(reply.getThinkingTokens()));
+    }
+    
+    /**
+     * 최근 days일의 날짜/모드별 사용량 (아직 DB에 반영되지 않은 값 포함, 최신 날짜부터)
+     */
+    public List<UsageSummary> getUsage(Long userId, int days) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(days, 1) - 1);
+        
+        Map<UsageKey, UsageSummary> summaries = new LinkedHashMap<>();
+        for (DailyUsage usage : dailyUsageRepository
+                .findByUserIdAndUsageDateGreaterThanEqualOrderByUsageDateDescModeAsc(userId, from)) {
+            summaries.put(new UsageKey(userId, usage.getMode(), usage.getUsageDate()),
+                    new UsageSummary(usage.getUsageDate(), usage.getMode(), usage.getRequestCount(),
+                            usage.getPromptTokens(), usage.getOutputTokens(), usage.getThinkingTokens()));
+        }
+        
+        counters.forEach((key, counter) -> {
+            if (!key.userId().equals(userId) || key.date().isBefore(from) || counter.requests.get() == 0) {
+                return;
+            }
+            UsageSummary summary = summaries.computeIfAbsent(key,
+                    k -> new UsageSummary(k.date(), k.mode(), 0, 0, 0, 0));
+            summary.setRequestCount(summary.getRequestCount() + counter.requests.get());
+            summary.setPromptTokens(summary.getPromptTokens() + counter.promptTokens.get());
+            summary.setOutputTokens(summary.getOutputTokens() + counter.outputTokens.get());
+            summary.setThinkingTokens(summary.getThinkingTokens() + counter.thinkingTokens.get());
+        });
+        
+        List<UsageSummary> result = new ArrayList<>(summaries.values());
+        result.sort(Comparator.comparing(UsageSummary::getDate).reversed().thenComparing(UsageSummary::getMode));
+        return result;
+    }
+    
+    public long getDailyTokenQuota() {
+        return dailyTokenQuota;
+    }
+    
+    public Map<String, Long> getModeTokenQuotas() {
+        return modeTokenQuotas;
+    }
+    
+    /**
+     * 메모리에 모인 사용량을 DB에 반영
+     * 반영에 실패한 값은 되돌려 두고 다음 주기에 다시 시도합니다.
+     * 지난 날짜의 카운터는 반영이 끝나면 제거합니다.
+     */
+    @Scheduled(fixedDelayString = "${chat.usage.flush-interval-ms:30000}",
+               initialDelayString = "${chat.usage.flush-interval-ms:30000}")
+    public void flush() {
+        LocalDate today = LocalDate.now();
+        int flushed = 0;
+        
+        for (Map.Entry<UsageKey, UsageCounter> entry : counters.entrySet()) {
+            UsageKey key = entry.getKey();
+            UsageCounter counter = entry.getValue();
+            
+            long requests = counter.requests.getAndSet(0);
+            long promptTokens = counter.promptTokens.getAndSet(0);
+            long outputTokens = counter.outputTokens.getAndSet(0);
+            long thinkingTokens = counter.thinkingTokens.getAndSet(0);
+            
+            if (requests > 0) {
+                // 한도 계산에서 빠지지 않도록 먼저 반영된 값에 더해 둠
+                counter.flushedTokens.addAndGet(promptTokens + outputTokens + thinkingTokens);
+                try {
+                    addUsage(key, requests, promptTokens, outputTokens, thinkingTokens);
+                    flushed++;
+                } catch (Exception e) {
+                    counter.flushedTokens.addAndGet(-(promptTokens + outputTokens + thinkingTokens));
+                    counter.requests.addAndGet(requests);
+                    counter.promptTokens.addAndGet(promptTokens);
+                    counter.outputTokens.addAndGet(outputTokens);
+                    counter.thinkingTokens.addAndGet(thinkingTokens);
+                    System.err.println("사용량 저장 실패 (" + key.userId() + ", " + key.mode() + "): " + e.getMessage());
+                    continue;
+                }
+            }
+            
+            if (key.date().isBefore(today) && counter.requests.get() == 0) {
+                counters.remove(key, counter);
+            }
+        }
+        
+        if (flushed > 0) {
+            System.out.println("사용량 " + flushed + "건 DB 반영 완료");
+        }
+    }
+    
+    // 종료 시 아직 반영하지 않은 사용량 저장
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    // 행이 있으면 DB에서 바로 더하고, 없으면 새로 생성 (동시에 생성되어 충돌하면 다시 더함)
+    private void addUsage(UsageKey key, long requests, long promptTokens, long outputTokens, long thinkingTokens) {
+        Long userId = key.userId();
+        int updated = dailyUsageRepository.addUsage(userId, key.mode(), key.date(),
+                requests, promptTokens, outputTokens, thinkingTokens);
+        if (updated > 0) {
+            return;
+        }
+        
+        try {
+            dailyUsageRepository.save(new DailyUsage(null, userRepository.getReferenceById(userId), key.mode(), key.date(),
+                    requests, promptTokens, outputTokens, thinkingTokens));
+        } catch (DataIntegrityViolationException e) {
+            dailyUsageRepository.addUsage(userId, key.mode(), key.date(),
+                    requests, promptTokens, outputTokens, thinkingTokens);
+        }
+    }
+    
+    // 해당 날짜의 모드별 카운터 (처음이면 DB에 반영된 값을 한 번에 읽어 초기화)
+    private Map<String, UsageCounter> countersFor(Long userId, LocalDate date) {
+        Map<String, UsageCounter> result = new HashMap<>();
+        boolean missing = false;
+        for (String mode : PromptTemplates.MODES) {
+            UsageCounter counter = counters.get(new UsageKey(userId, mode, date));
+            if (counter == null) {
+                missing = true;
+                break;
+            }
+            result.put(mode, counter);
+        }
+        if (!missing) {
+            return result;
+        }
+        
+        Map<String, Long> stored = new HashMap<>();
+        for (DailyUsage usage : dailyUsageRepository.findByUserIdAndUsageDate(userId, date)) {
+            stored.put(usage.getMode(), usage.getTotalTokens());
+        }
+        for (String mode : PromptTemplates.MODES) {
+            UsageCounter created = new UsageCounter(stored.getOrDefault(mode, 0L));
+            UsageCounter existing = counters.putIfAbsent(new UsageKey(userId, mode, date), created);
+            result.put(mode, existing != null ? existing : created);
+        }
+        return result;
+    }
+    
+    private static long valueOf(Integer tokens) {
+        return tokens != null ? tokens : 0;
+    }
+    
+    /**
+     * 한도 확인 결과
+     * scope는 초과한 한도 종류 (mode: 모드별, daily: 전체)
+     */
+    public record QuotaCheck(boolean allowed, String scope, long limit, long used, long resetSeconds) {
+        
+        public static final QuotaCheck UNLIMITED = new QuotaCheck(true, null, 0, 0, 0);
+    }
+    
+    private record UsageKey(Long userId, String mode, LocalDate date) {
+    }
+    
+    // 아직 DB에 반영하지 않은 값과, 한도 계산용으로 이미 반영된 토큰 합계
+    private static final class UsageCounter {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong promptTokens = new AtomicLong();
+        private final AtomicLong outputTokens = new AtomicLong();
+        private final AtomicLong thinkingTokens = new AtomicLong();
+        private final AtomicLong flushedTokens;
+        
+        private UsageCounter(long flushedTokens) {
+            this.flushedTokens = new AtomicLong(flushedTokens);
+        }
+        
+        private long totalTokens() {
+            return flushedTokens.get() + promptTokens.get() + outputTokens.get() + thinkingTokens.get();
+        }
+    }
+}
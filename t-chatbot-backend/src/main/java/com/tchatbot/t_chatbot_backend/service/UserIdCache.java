@@ -0,0 +1,53 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import com.tchatbot.t_chatbot_backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 이메일 → 사용자 ID 캐시 (크기 제한 LRU)
+ * 로그인한 요청은 세션의 사용자 정보(SessionUser)에서 ID를 읽으므로, 이 캐시는 사용자 정보 객체 없이
+ * 이메일만 저장된 기존 세션을 처음 확인할 때만 사용합니다.
+ * 사용자는 삭제되지 않고 이메일도 바뀌지 않으므로 만료 없이 크기로만 제거합니다.
+ */
+@Component
+public class UserIdCache {
+    
+    private final UserRepository userRepository;
+    private final Map<String, Long> ids;
+    
+    @Autowired
+    public UserIdCache(UserRepository userRepository,
+                       @Value("${chat.user-id-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        
+        // 접근 순서 기반 LinkedHashMap으로 LRU 구현
+        this.ids = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    // 캐시에 없으면 ID만 조회해서 채움
+    public Long resolve(String email) {
+        synchronized (ids) {
+            Long id = ids.get(email);
+            if (id != null) {
+                return id;
+            }
+        }
+        
+        Long id = userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("사용자를 찾을 수 없습니다."));
+        synchronized (ids) {
+            ids.put(email, id);
+        }
+        return id;
+    }
+}
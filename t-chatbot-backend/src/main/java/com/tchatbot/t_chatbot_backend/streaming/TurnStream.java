@@ -0,0 +1,239 @@
+package com.tchatbot.t_chatbot_backend.streaming;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 생성 중인 턴 하나의 토큰 버퍼
+ * 생성은 HTTP 연결과 별개로 끝까지 진행하고, 받은 토큰을 순서대로 보관했다가
+ * 연결된 클라이언트(구독자)에게 전달합니다. 연결이 끊겨도 생성은 멈추지 않으며,
+ * 다시 연결하면 마지막으로 받은 이벤트 ID(= 받은 토큰 수) 다음부터 이어서 받습니다.
+ * 버퍼가 max-buffer-chars를 넘으면 더 보관하지 않으므로 그 이후로는 이어받을 수 없습니다.
+ *
+ * 전송은 잠금 밖에서 합니다. 구독자마다 보낸 위치를 두고, 전송 스레드(deliveryExecutor)가
+ * 구독자별로 하나씩 돌며 밀린 토큰을 순서대로 보내므로 느린 클라이언트가 생성이나 다른 구독자를 막지 않습니다.
+ */
+public final class TurnStream {
+
+    private final String turnId;
+    private final String email;
+    private final int maxBufferChars;
+    private final Executor deliveryExecutor;
+
+    private final List<String> chunks = new ArrayList<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private int bufferedChars;
+    private int sequence;          // 지금까지 받은 토큰 수 (보관하지 못한 것 포함)
+    private boolean truncated;
+
+    private String terminalEvent;  // done 또는 error
+    private Object terminalData;
+    private volatile long completedAt;
+
+    TurnStream(String turnId, String email, int maxBufferChars, Executor deliveryExecutor) {
+        this.turnId = turnId;
+        this.email = email;
+        this.maxBufferChars = maxBufferChars;
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    public String getTurnId() {
+        return turnId;
+    }
+
+    String getEmail() {
+        return email;
+    }
+
+    boolean isCompleted() {
+        return completedAt != 0;
+    }
+
+    long getCompletedAt() {
+        return completedAt;
+    }
+
+    // 생성된 토큰을 보관하고 연결된 구독자에게 전달 예약 (전송을 기다리지 않음)
+    public synchronized void append(String text) {
+        sequence++;
+        if (!truncated) {
+            if (bufferedChars + text.length() > maxBufferChars) {
+                truncated = true;
+                System.out.println("턴 " + turnId + " 버퍼 한도 초과 - 이후로는 이어받기 불가");
+            } else {
+                chunks.add(text);
+                bufferedChars += text.length();
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (truncated) {
+                // 버퍼에 남지 않는 토큰은 이미 연결된 구독자의 대기열에만 보관
+                subscriber.overflow.add(text);
+            }
+            schedule(subscriber);
+        }
+    }
+
+    // 저장까지 끝난 경우 (data: sessionId 등)
+    public synchronized void complete(Object data) {
+        finish("done", data);
+    }
+
+    public synchronized void fail(Object data) {
+        finish("error", data);
+    }
+
+    /**
+     * lastEventId 다음 토큰부터 다시 보내고, 생성 중이면 이후 토큰도 받도록 등록
+     * 이미 끝난 턴이면 남은 토큰과 마지막 이벤트를 보내고 연결을 닫습니다.
+     * 필요한 토큰이 버퍼에 없으면(한도 초과) false
+     */
+    public synchronized boolean subscribe(SseEmitter emitter, int lastEventId) {
+        int from = Math.max(0, lastEventId);
+        if (from > sequence || (truncated && from < sequence)) {
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(emitter, from);
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return true;
+    }
+
+    public synchronized void unsubscribe(SseEmitter emitter) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.emitter == emitter) {
+                subscriber.closed = true;
+                subscribers.remove(subscriber);
+                return;
+            }
+        }
+    }
+
+    private void finish(String event, Object data) {
+        if (terminalEvent != null) {
+            return;
+        }
+        terminalEvent = event;
+        terminalData = data;
+        completedAt = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            schedule(subscriber);
+        }
+    }
+
+    // 구독자마다 전송 작업은 하나만 실행 (잠금 안에서 호출)
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining || subscriber.closed) {
+            return;
+        }
+        subscriber.draining = true;
+        try {
+            deliveryExecutor.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // 종료 중 - 연결은 시간 초과로 정리됨
+            subscriber.draining = false;
+        }
+    }
+
+    // 밀린 토큰을 잠금 안에서 꺼내고 잠금 밖에서 전송, 더 보낼 것이 없으면 종료
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            int firstEventId;
+            List<String> batch = new ArrayList<>();
+            boolean finished;
+            String event;
+            Object data;
+            synchronized (this) {
+                if (subscriber.closed) {
+                    subscriber.draining = false;
+                    return;
+                }
+                firstEventId = subscriber.sent + 1;
+                while (subscriber.sent < chunks.size()) {
+                    batch.add(chunks.get(subscriber.sent++));
+                }
+                while (!subscriber.overflow.isEmpty()) {
+                    batch.add(subscriber.overflow.poll());
+                    subscriber.sent++;
+                }
+                finished = batch.isEmpty() && terminalEvent != null;
+                if (batch.isEmpty() && !finished) {
+                    subscriber.draining = false;
+                    return;
+                }
+                if (finished) {
+                    subscriber.closed = true;
+                    subscribers.remove(subscriber);
+                }
+                event = terminalEvent;
+                data = terminalData;
+            }
+
+            if (finished) {
+                sendTerminal(subscriber.emitter, event, data);
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (!sendToken(subscriber.emitter, firstEventId + i, batch.get(i))) {
+                    unsubscribe(subscriber.emitter);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void sendTerminal(SseEmitter emitter, String event, Object data) {
+        if (send(emitter, SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON))) {
+            emitter.complete();
+        }
+    }
+
+    // 이벤트 ID는 지금까지 보낸 토큰 수 (다시 연결할 때 Last-Event-ID로 사용)
+    private static boolean sendToken(SseEmitter emitter, int eventId, String text) {
+        return send(emitter, SseEmitter.event()
+                .id(String.valueOf(eventId))
+                .name("token")
+                .data(Map.of("text", text), MediaType.APPLICATION_JSON));
+    }
+
+    // 연결이 끊긴 구독자는 전송 실패로 정리 (생성은 계속 진행)
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            try {
+                emitter.completeWithError(e);
+            } catch (IllegalStateException ignored) {
+                // 이미 닫힌 경우
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 연결 하나의 전송 상태 (이 객체의 잠금으로 보호)
+     * 버퍼에 있는 토큰은 sent 위치부터 버퍼에서 바로 읽고, 버퍼 한도를 넘은 뒤의 토큰만 overflow에 보관합니다.
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Deque<String> overflow = new ArrayDeque<>();
+        private int sent;          // 전송을 위해 꺼낸 마지막 토큰의 이벤트 ID
+        private boolean draining;  // 전송 작업이 실행 중인지
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, int sent) {
+            this.emitter = emitter;
+            this.sent = sent;
+        }
+    }
+}
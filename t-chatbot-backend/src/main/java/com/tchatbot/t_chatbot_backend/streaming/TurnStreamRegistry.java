@@ -0,0 +1,84 @@
+package com.tchatbot.t_chatbot_backend.streaming;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이어받기 가능한 스트리밍 턴 목록 (턴 ID -> 토큰 버퍼)
+ * 끝난 턴은 저장된 뒤에도 retention-ms 동안 남겨 두어, 완료 직전에 연결이 끊긴 클라이언트도
+ * 나머지 응답과 세션 ID를 받을 수 있게 합니다.
+ * 턴은 최대 max-turns개까지 보관하며, 넘치면 끝난 턴부터 오래된 순서로 제거합니다.
+ * (생성 중인 턴은 동시 호출 한도로 이미 제한되므로 제거하지 않음)
+ */
+@Component
+public class TurnStreamRegistry {
+
+    private final Map<String, TurnStream> streams = new ConcurrentHashMap<>();
+    private final long retentionNanos;
+    private final int maxBufferChars;
+    private final int maxTurns;
+    private final Executor deliveryExecutor;
+
+    public TurnStreamRegistry(@Value("${chat.stream.resume.retention-ms:300000}") long retentionMillis,
+                              @Value("${chat.stream.resume.max-buffer-chars:100000}") int maxBufferChars,
+                              @Value("${chat.stream.resume.max-turns:1000}") int maxTurns,
+                              @Qualifier("sseExecutor") Executor deliveryExecutor,
+                              MeterRegistry meterRegistry) {
+        this.retentionNanos = TimeUnit.MILLISECONDS.toNanos(retentionMillis);
+        this.maxBufferChars = maxBufferChars;
+        this.maxTurns = maxTurns;
+        this.deliveryExecutor = deliveryExecutor;
+        Gauge.builder("chat.stream.buffered-turns", streams, Map::size)
+                .register(meterRegistry);
+    }
+
+    public TurnStream start(String email) {
+        if (streams.size() >= maxTurns) {
+            evictExpired();
+            evictOldestCompleted(streams.size() - maxTurns + 1);
+        }
+        TurnStream stream = new TurnStream(UUID.randomUUID().toString(), email, maxBufferChars, deliveryExecutor);
+        streams.put(stream.getTurnId(), stream);
+        return stream;
+    }
+
+    // 다른 사용자의 턴은 없는 것으로 처리
+    public Optional<TurnStream> find(String turnId, String email) {
+        TurnStream stream = streams.get(turnId);
+        if (stream == null || !stream.getEmail().equals(email)) {
+            return Optional.empty();
+        }
+        return Optional.of(stream);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.stream.resume.cleanup-interval-ms:30000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        streams.values().removeIf(stream ->
+                stream.isCompleted() && now - stream.getCompletedAt() > retentionNanos);
+    }
+
+    private void evictOldestCompleted(int count) {
+        if (count <= 0) {
+            return;
+        }
+        streams.values().stream()
+                .filter(TurnStream::isCompleted)
+                .sorted(Comparator.comparingLong(TurnStream::getCompletedAt))
+                .limit(count)
+                .toList()
+                .forEach(stream -> streams.remove(stream.getTurnId(), stream));
+    }
+}
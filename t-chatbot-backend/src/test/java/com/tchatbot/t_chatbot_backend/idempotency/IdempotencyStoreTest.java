@@ -0,0 +1,101 @@
+package com.tchatbot.t_chatbot_backend.idempotency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 같은 Idempotency-Key: 처리 중이면 결과 공유, 완료 후에는 재사용, 실패와 다른 내용은 저장/재사용하지 않음
+class IdempotencyStoreTest {
+
+    private static final String EMAIL = "tester@example.com";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyStore store = new IdempotencyStore(3600, 2, meterRegistry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void retryWhileInFlightWaitsForOriginalResponse() {
+        CompletableFuture<ResponseEntity<?>> pending = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<?>> original = store.execute(EMAIL, "key", "안녕", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<ResponseEntity<?>> retry = store.execute(EMAIL, "key", "안녕", this::newCall);
+        assertThat(retry).isNotDone();
+
+        pending.complete(ResponseEntity.ok(Map.of("message", "응답")));
+
+        assertThat(original.join().getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.join().getBody()).isEqualTo(Map.of("message", "응답"));
+        assertThat(retry.join().getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void completedResponseIsReplayed() {
+        store.execute(EMAIL, "key", "안녕", this::newCall).join();
+
+        ResponseEntity<?> replayed = store.execute(EMAIL, "key", "안녕", this::newCall).join();
+
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replayed.getBody()).isEqualTo(Map.of("message", "응답 1"));
+        assertThat(replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("chat.idempotency.replayed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsRejected() {
+        store.execute(EMAIL, "key", "안녕", this::newCall).join();
+
+        // 컨트롤러는 이 예외를 422로 응답
+        assertThatThrownBy(() -> store.execute(EMAIL, "key", "다른 메시지", this::newCall))
+                .isInstanceOf(IdempotencyKeyReuseException.class);
+        // 다른 사용자의 같은 키는 별개
+        assertThat(store.execute("other@example.com", "key", "다른 메시지", this::newCall).join().getBody())
+                .isEqualTo(Map.of("message", "응답 2"));
+    }
+
+    @Test
+    void failedResponseIsNotStored() {
+        ResponseEntity<?> failed = store.execute(EMAIL, "key", "안녕", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(Map.of("message", "AI 모델 응답 생성에 실패했습니다.")));
+        }).join();
+        assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+
+        ResponseEntity<?> retried = store.execute(EMAIL, "key", "안녕", this::newCall).join();
+
+        assertThat(retried.getBody()).isEqualTo(Map.of("message", "응답 2"));
+        assertThat(retried.getHeaders().containsKey(IdempotencyStore.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void oldestKeyIsEvictedBeyondMaxEntries() {
+        store.execute(EMAIL, "first", "안녕", this::newCall).join();
+        store.execute(EMAIL, "second", "안녕", this::newCall).join();
+        store.execute(EMAIL, "third", "안녕", this::newCall).join();
+
+        // max-entries(2)를 넘어 가장 오래된 키는 새로 처리되고, 최근 키는 재사용됨
+        assertThat(store.execute(EMAIL, "third", "안녕", this::newCall).join().getBody())
+                .isEqualTo(Map.of("message", "응답 3"));
+        assertThat(store.execute(EMAIL, "first", "안녕", this::newCall).join().getBody())
+                .isEqualTo(Map.of("message", "응답 4"));
+        assertThat(calls).hasValue(4);
+    }
+
+    private CompletableFuture<ResponseEntity<?>> newCall() {
+        return CompletableFuture.completedFuture(ResponseEntity.ok(Map.of("message", "응답 " + calls.incrementAndGet())));
+    }
+}
@@ -0,0 +1,89 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 동시 호출 한도는 과부하 신호(429/5xx/시간 초과)에만 줄어듦
+class AdaptiveConcurrencyLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            true, 10, 1, 100, 50, 3000, 20000, 0.5, 10, "", 0.25, meterRegistry);
+
+    @Test
+    void badRequestDoesNotShrinkLimit() {
+        failWith(new LlmProviderException(400, "잘못된 요청", null));
+        failWith(new IllegalArgumentException("프롬프트 오류"));
+
+        assertThat(limit()).isEqualTo(10);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void serverErrorShrinksLimit() {
+        failWith(new LlmProviderException(503, "과부하", null));
+
+        assertThat(limit()).isEqualTo(5);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void timeoutShrinksLimit() {
+        failWith(new RuntimeException("시간 초과", new TimeoutException()));
+
+        assertThat(limit()).isEqualTo(5);
+    }
+
+    @Test
+    void queuedBackgroundCallYieldsToUserRequest() throws Exception {
+        MeterRegistry singleRegistry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter single = new AdaptiveConcurrencyLimiter(
+                true, 1, 1, 1, 50, 3000, 20000, 0.5, 10, "", 0.25, singleRegistry);
+        AdaptiveConcurrencyLimiter.Permit held = single.acquire("holder@example.com", "default");
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Thread background = Thread.ofVirtual().start(() -> single.executeBackground(() -> order.add("background")));
+        awaitQueued(singleRegistry, 1);
+        Thread user = Thread.ofVirtual().start(() -> single.execute("tester@example.com", "default", () -> order.add("user")));
+        awaitQueued(singleRegistry, 2);
+
+        held.onSuccess();
+        held.close();
+        background.join(5000);
+        user.join(5000);
+
+        // 먼저 기다리던 백그라운드 호출보다 사용자 요청이 먼저 자리를 받음
+        assertThat(order).containsExactly("user", "background");
+    }
+
+    private static void awaitQueued(MeterRegistry registry, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("chat.llm.limiter.queue-depth").gauge().value() < depth) {
+            assertThat(System.nanoTime()).as("대기열에 들어가기를 기다리다 시간 초과").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void failWith(RuntimeException error) {
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw error;
+        })).isSameAs(error);
+    }
+
+    private double limit() {
+        return meterRegistry.get("chat.llm.limiter.limit").gauge().value();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("chat.llm.limiter.in-flight").gauge().value();
+    }
+}
@@ -0,0 +1,113 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import com.google.genai.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 키 상태: 429와 인증 실패는 바로, 5xx와 네트워크 오류는 연속 failure-threshold회부터 제외
+class GeminiClientPoolTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GeminiClientPool pool = new GeminiClientPool(
+            List.of(client(), client()), 0, 30000, 300000, 3, meterRegistry);
+
+    @Test
+    void rateLimitedKeyIsEjectedImmediately() {
+        failOnKey0(new LlmProviderException(429, "한도 초과", null));
+
+        assertThat(ejected("key-0")).isTrue();
+    }
+
+    @Test
+    void authFailureEjectsKeyImmediately() {
+        failOnKey0(new LlmProviderException(403, "권한 없음", null));
+
+        assertThat(ejected("key-0")).isTrue();
+        assertThat(failures("key-0", "auth")).isEqualTo(1);
+        // 남은 키로만 보냄
+        for (int i = 0; i < 4; i++) {
+            try (GeminiClientPool.Lease lease = pool.lease()) {
+                assertThat(lease.keyId()).isEqualTo("key-1");
+            }
+        }
+    }
+
+    @Test
+    void serverErrorsEjectKeyAfterThreshold() {
+        failOnKey0(new LlmProviderException(503, "과부하", null));
+        failOnKey0(new LlmProviderException(500, "내부 오류", null));
+        assertThat(ejected("key-0")).isFalse();
+
+        failOnKey0(new LlmProviderException(502, "게이트웨이 오류", null));
+
+        assertThat(ejected("key-0")).isTrue();
+        assertThat(failures("key-0", "server")).isEqualTo(3);
+    }
+
+    @Test
+    void networkErrorsCountAndSuccessResets() {
+        failOnKey0(new RuntimeException("연결 끊김", new IOException("Connection reset")));
+        failOnKey0(new RuntimeException("연결 끊김", new IOException("Connection reset")));
+        succeedOnKey0();
+        failOnKey0(new RuntimeException("연결 끊김", new IOException("Connection reset")));
+        failOnKey0(new RuntimeException("연결 끊김", new IOException("Connection reset")));
+
+        assertThat(ejected("key-0")).isFalse();
+        assertThat(failures("key-0", "network")).isEqualTo(4);
+
+        failOnKey0(new RuntimeException("연결 끊김", new IOException("Connection reset")));
+        assertThat(ejected("key-0")).isTrue();
+    }
+
+    @Test
+    void badRequestDoesNotAffectKeyHealth() {
+        for (int i = 0; i < 5; i++) {
+            failOnKey0(new LlmProviderException(400, "잘못된 요청", null));
+            failOnKey0(new IllegalStateException("응답 파싱 오류"));
+        }
+
+        assertThat(ejected("key-0")).isFalse();
+    }
+
+    private void failOnKey0(RuntimeException error) {
+        try (GeminiClientPool.Lease lease = leaseKey0()) {
+            lease.onFailure(error);
+        }
+    }
+
+    private void succeedOnKey0() {
+        try (GeminiClientPool.Lease lease = leaseKey0()) {
+            lease.onSuccess();
+        }
+    }
+
+    // 진행 중인 요청이 없으면 돌아가며 고르므로 key-0이 나올 때까지 빌림
+    private GeminiClientPool.Lease leaseKey0() {
+        for (int i = 0; i < 2; i++) {
+            GeminiClientPool.Lease lease = pool.lease();
+            if (lease.keyId().equals("key-0")) {
+                return lease;
+            }
+            lease.close();
+        }
+        throw new AssertionError("key-0을 빌리지 못함");
+    }
+
+    private boolean ejected(String key) {
+        return meterRegistry.get("chat.llm.keys.ejected").tag("key", key).gauge().value() == 1;
+    }
+
+    private double failures(String key, String reason) {
+        return meterRegistry.get("chat.llm.keys.failures").tag("key", key).tag("reason", reason).counter().count();
+    }
+
+    private static Client client() {
+        return Client.builder().apiKey("test-key").build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// hedge 요청도 동시 호출 자리를 차지하고, 빈 자리가 없으면 hedge하지 않음
+class GeminiResilienceTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void slowAttemptIsHedgedWhenSlotIsFree() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        GeminiResilience resilience = resilience(limiter);
+        warmUp(resilience);
+
+        AtomicInteger attempts = new AtomicInteger();
+        String result = resilience.call("model", model -> attempts.incrementAndGet() == 1 ? slow("느린 응답") : "hedge 응답");
+
+        assertThat(result).isEqualTo("hedge 응답");
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.get("chat.llm.hedges").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void slowAttemptIsNotHedgedWhenLimiterIsFull() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1);
+        GeminiResilience resilience = resilience(limiter);
+        warmUp(resilience);
+
+        AtomicInteger attempts = new AtomicInteger();
+        try (AdaptiveConcurrencyLimiter.Permit ignored = limiter.acquire()) {
+            String result = resilience.call("model", model -> attempts.incrementAndGet() == 1 ? slow("느린 응답") : "hedge 응답");
+            assertThat(result).isEqualTo("느린 응답");
+        }
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.get("chat.llm.hedges").counter().count()).isZero();
+    }
+
+    // hedge 기준 지연 시간을 만들기 위한 빠른 호출 하나
+    private static void warmUp(GeminiResilience resilience) {
+        resilience.call("model", model -> "준비");
+    }
+
+    private static String slow(String value) {
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return value;
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int limit) {
+        return new AdaptiveConcurrencyLimiter(true, limit, 1, limit, 50, 3000, 20000, 0.9, 10, "", 0.25, meterRegistry);
+    }
+
+    private GeminiResilience resilience(AdaptiveConcurrencyLimiter limiter) {
+        return new GeminiResilience("", 5000, 3000, 1, 200, 2000,
+                true, 0.95, 1,
+                20, 10, 0.5, 30000,
+                executor, limiter, meterRegistry);
+    }
+}
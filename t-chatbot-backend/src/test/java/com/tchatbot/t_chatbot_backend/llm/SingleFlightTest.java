@@ -0,0 +1,96 @@
+package com.tchatbot.t_chatbot_backend.llm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 동일 요청 병합: 대기자 공유, 마지막 대기자 취소 시 실행 중인 작업 인터럽트
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneUpstreamCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = singleFlight.execute("key", () -> CancellableTasks.supplyAsync(() -> {
+            calls.incrementAndGet();
+            await(release);
+            return "응답";
+        }, executor));
+        CompletableFuture<String> second = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("다른 응답");
+        });
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("응답");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("응답");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void cancellingLastWaiterInterruptsRunningTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> first = singleFlight.execute("key", () -> CancellableTasks.supplyAsync(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                return "응답";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new RuntimeException(e);
+            }
+        }, executor));
+        CompletableFuture<String> second = singleFlight.execute("key",
+                () -> CompletableFuture.completedFuture("다른 응답"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 대기자가 남아 있으면 작업은 계속 실행
+        first.cancel(true);
+        assertThat(interrupted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+        second.cancel(true);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void abandonedCallIsStartedAgainForNewCaller() throws Exception {
+        CompletableFuture<String> first = singleFlight.execute("key", () -> CancellableTasks.supplyAsync(() -> {
+            await(new CountDownLatch(1));
+            return "버려진 응답";
+        }, executor));
+        first.cancel(true);
+
+        CompletableFuture<String> second = singleFlight.execute("key",
+                () -> CompletableFuture.completedFuture("새 응답"));
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("새 응답");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
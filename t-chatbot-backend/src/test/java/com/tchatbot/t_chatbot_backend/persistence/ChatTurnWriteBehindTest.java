@@ -0,0 +1,147 @@
+package com.tchatbot.t_chatbot_backend.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.service.ChatSessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// write-behind 저장: 데이터 오류 턴 격리, 저장 중 턴 노출, 재시작 후 저널 복구 (DB는 mock)
+class ChatTurnWriteBehindTest {
+
+    private static final String EMAIL = "tester@example.com";
+
+    @TempDir
+    Path journalDirectory;
+
+    private final List<ChatTurnWriteBehind> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ChatTurnWriteBehind writeBehind : started) {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    void badTurnDoesNotBlockLaterTurns() throws Exception {
+        List<String> saved = new CopyOnWriteArrayList<>();
+        ChatSessionService service = mock(ChatSessionService.class);
+        when(service.saveJournaledTurns(anyList())).thenAnswer(invocation -> {
+            List<JournaledTurn> turns = invocation.getArgument(0);
+            if (turns.stream().anyMatch(turn -> turn.userMessage() == null)) {
+                throw new DataIntegrityViolationException("NULL not allowed for column USER_MESSAGE");
+            }
+            turns.forEach(turn -> saved.add(turn.userMessage()));
+            return turns.size();
+        });
+        ChatTurnWriteBehind writeBehind = start(service, 3);
+
+        assertThat(writeBehind.submit(1L, EMAIL, "default", null, ChatReply.withoutUsage("답변"))).isTrue();
+        assertThat(writeBehind.submit(1L, EMAIL, "default", "두 번째", ChatReply.withoutUsage("답변"))).isTrue();
+        assertThat(writeBehind.submit(1L, EMAIL, "default", "세 번째", ChatReply.withoutUsage("답변"))).isTrue();
+
+        awaitTrue(() -> saved.size() == 2);
+        assertThat(saved).containsExactly("두 번째", "세 번째");
+
+        // 대기열 자리도 모두 반납되어 이후 턴을 계속 받음
+        awaitTrue(() -> writeBehind.pendingTurns(1L).isEmpty());
+        assertThat(writeBehind.submit(1L, EMAIL, "default", "네 번째", ChatReply.withoutUsage("답변"))).isTrue();
+        awaitTrue(() -> saved.size() == 3);
+
+        String deadLetters = Files.readString(journalDirectory.resolve("dead-letter.log"), StandardCharsets.UTF_8);
+        assertThat(deadLetters.lines()).hasSize(1);
+        assertThat(deadLetters).doesNotContain("두 번째");
+    }
+
+    @Test
+    void turnStaysVisibleWhileItsBatchIsBeingSaved() throws Exception {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChatSessionService service = mock(ChatSessionService.class);
+        when(service.saveJournaledTurns(anyList())).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.<List<JournaledTurn>>getArgument(0).size();
+        });
+        ChatTurnWriteBehind writeBehind = start(service, 10);
+
+        assertThat(writeBehind.submit(1L, EMAIL, "default", "저장 중", ChatReply.withoutUsage("답변"))).isTrue();
+        assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 대기열에서는 빠졌지만 커밋 전이므로 대화 윈도우에 계속 보여야 함
+        assertThat(writeBehind.pendingTurns(1L)).extracting(JournaledTurn::userMessage).containsExactly("저장 중");
+
+        release.countDown();
+        awaitTrue(() -> writeBehind.pendingTurns(1L).isEmpty());
+    }
+
+    @Test
+    void unsavedTurnsAreRecoveredFromJournalAfterRestart() throws Exception {
+        ChatSessionService unavailable = mock(ChatSessionService.class);
+        when(unavailable.saveJournaledTurns(anyList()))
+                .thenThrow(new TransientDataAccessResourceException("DB 연결 끊김"));
+        ChatTurnWriteBehind first = start(unavailable, 10);
+
+        assertThat(first.submit(1L, EMAIL, "default", "첫 번째", ChatReply.withoutUsage("답변"))).isTrue();
+        assertThat(first.submit(2L, EMAIL, "love", "두 번째", ChatReply.withoutUsage("답변"))).isTrue();
+        first.stop();
+        started.remove(first);
+
+        List<JournaledTurn> recovered = new CopyOnWriteArrayList<>();
+        ChatSessionService available = mock(ChatSessionService.class);
+        when(available.saveJournaledTurns(anyList())).thenAnswer(invocation -> {
+            List<JournaledTurn> turns = invocation.getArgument(0);
+            recovered.addAll(turns);
+            return turns.size();
+        });
+        ChatTurnWriteBehind second = start(available, 10);
+
+        awaitTrue(() -> recovered.size() == 2);
+        assertThat(recovered).extracting(JournaledTurn::userMessage).containsExactly("첫 번째", "두 번째");
+        assertThat(recovered).extracting(JournaledTurn::sessionId).containsExactly(1L, 2L);
+        assertThat(recovered).extracting(JournaledTurn::mode).containsExactly("default", "love");
+
+        // 저장이 끝난 세그먼트는 정리되어 다음 재시작 때 다시 읽히지 않음
+        second.stop();
+        started.remove(second);
+        recovered.clear();
+        start(available, 10);
+        Thread.sleep(200);
+        assertThat(recovered).isEmpty();
+    }
+
+    private ChatTurnWriteBehind start(ChatSessionService service, int queueCapacity) throws Exception {
+        ChatTurnWriteBehind writeBehind = new ChatTurnWriteBehind(service, new ObjectMapper(), true,
+                journalDirectory.toString(), true, queueCapacity, 200, 20, 8_388_608);
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("조건을 기다리다 시간 초과").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tchatbot.t_chatbot_backend.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 저널 group commit: 동시에 기록해도 모든 줄이 남고, 교체 중에도 기록이 끝남
+class TurnJournalTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void concurrentAppendsAreAllRecovered() throws Exception {
+        List<String> written = new ArrayList<>();
+        try (TurnJournal journal = new TurnJournal(journalDirectory, true);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            journal.recover();
+            List<Future<Long>> appends = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String line = "{\"turn\":" + i + "}";
+                written.add(line);
+                appends.add(executor.submit(() -> journal.append(line)));
+                if (i % 50 == 0) {
+                    executor.submit(() -> {
+                        journal.rotate();
+                        return null;
+                    });
+                }
+            }
+            for (Future<Long> append : appends) {
+                append.get();
+            }
+        }
+
+        try (TurnJournal reopened = new TurnJournal(journalDirectory, true)) {
+            assertThat(reopened.recover()).extracting(TurnJournal.Entry::line)
+                    .containsExactlyInAnyOrderElementsOf(written);
+        }
+    }
+}
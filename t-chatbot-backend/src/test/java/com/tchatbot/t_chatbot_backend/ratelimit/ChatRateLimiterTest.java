@@ -0,0 +1,55 @@
+package com.tchatbot.t_chatbot_backend.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 사용자/모드별 한도: 배치 항목 수만큼 차감, 최대 비용, 전역 한도 거절 시 환불
+class ChatRateLimiterTest {
+
+    private static final String EMAIL = "tester@example.com";
+
+    @Test
+    void batchIsChargedOneTokenPerItem() {
+        ChatRateLimiter limiter = limiter(false, 200);
+
+        assertThat(limiter.tryAcquire(EMAIL, "default", 20).allowed()).isTrue();
+
+        assertThat(limiter.tryAcquire(EMAIL, "default", 1).allowed()).isFalse();
+        // 다른 모드와 다른 사용자는 별도 버킷
+        assertThat(limiter.tryAcquire(EMAIL, "love", 1).allowed()).isTrue();
+        assertThat(limiter.tryAcquire("other@example.com", "default", 1).allowed()).isTrue();
+    }
+
+    @Test
+    void batchLargerThanCapacityIsNeverAllowed() {
+        ChatRateLimiter limiter = limiter(false, 200);
+
+        assertThat(limiter.maxCost("default")).isEqualTo(20);
+        assertThat(limiter.tryAcquire(EMAIL, "default", 100).allowed()).isFalse();
+        assertThat(limiter.tryAcquire(EMAIL, "default", 20).allowed()).isTrue();
+    }
+
+    @Test
+    void maxCostIsLimitedByGlobalBucket() {
+        assertThat(limiter(true, 5).maxCost("love")).isEqualTo(5);
+    }
+
+    @Test
+    void globalRejectionRefundsUserBucket() {
+        // love 모드 버킷은 용량 1
+        ChatRateLimiter limiter = new ChatRateLimiter(true, 20, 10, "love:1:1", true, 5, 600, new SimpleMeterRegistry());
+
+        assertThat(limiter.tryAcquire(EMAIL, "default", 5).allowed()).isTrue();
+        assertThat(limiter.tryAcquire(EMAIL, "love", 1).allowed()).isFalse();
+
+        // 전역 버킷에 자리가 생기면 love 버킷의 토큰 1개가 그대로 남아 있음
+        limiter.refund(EMAIL, "default", 5);
+        assertThat(limiter.tryAcquire(EMAIL, "love", 1).allowed()).isTrue();
+    }
+
+    private static ChatRateLimiter limiter(boolean globalEnabled, int globalCapacity) {
+        return new ChatRateLimiter(true, 20, 10, "", globalEnabled, globalCapacity, 600, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,67 @@
+package com.tchatbot.t_chatbot_backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// GCRA 토큰 버킷: 충전, 거절, 환불, 용량보다 큰 요청
+class TokenBucketTest {
+
+    private static final long START = TimeUnit.HOURS.toNanos(1);
+    private static final long SIX_SECONDS = TimeUnit.SECONDS.toNanos(6);
+
+    // 용량 20, 분당 10개 충전 (6초에 1개)
+    private final TokenBucket bucket = new TokenBucket(20, 10 / 60.0, START);
+
+    @Test
+    void startsFullAndRejectsWhenEmpty() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(bucket.tryAcquire(1, START).allowed()).isTrue();
+        }
+
+        RateLimitDecision rejected = bucket.tryAcquire(1, START);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(6);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        assertThat(bucket.tryAcquire(20, START).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(1, START + SIX_SECONDS - 1).allowed()).isFalse();
+
+        assertThat(bucket.tryAcquire(1, START + SIX_SECONDS).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(1, START + SIX_SECONDS).allowed()).isFalse();
+        assertThat(bucket.isFull(START + 21 * SIX_SECONDS)).isTrue();
+    }
+
+    @Test
+    void chargesFullCostOfBatch() {
+        RateLimitDecision decision = bucket.tryAcquire(15, START);
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isEqualTo(5);
+        assertThat(bucket.tryAcquire(6, START).allowed()).isFalse();
+        assertThat(bucket.tryAcquire(5, START).allowed()).isTrue();
+    }
+
+    @Test
+    void rejectsCostLargerThanCapacityEvenWhenFull() {
+        assertThat(bucket.tryAcquire(21, START).allowed()).isFalse();
+        assertThat(bucket.tryAcquire(100, START).allowed()).isFalse();
+
+        // 거절된 요청은 차감하지 않음
+        assertThat(bucket.tryAcquire(20, START).allowed()).isTrue();
+    }
+
+    @Test
+    void refundReturnsChargedTokens() {
+        assertThat(bucket.tryAcquire(20, START).allowed()).isTrue();
+        bucket.refund(8);
+
+        assertThat(bucket.tryAcquire(8, START).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(1, START).allowed()).isFalse();
+    }
+}
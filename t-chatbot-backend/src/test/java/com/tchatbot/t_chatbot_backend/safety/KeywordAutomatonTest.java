@@ -0,0 +1,64 @@
+package com.tchatbot.t_chatbot_backend.safety;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 위기 키워드 검사: 공백/문장부호 무시, 영문 단어 경계, 제외 표현
+class KeywordAutomatonTest {
+
+    private final KeywordAutomaton automaton = KeywordAutomaton.compile(
+            List.of("죽고 싶", "자살", "자해", "suicide", "want to die", "kill myself"),
+            List.of("자살골", "suicide squad"));
+
+    @Test
+    void koreanKeywordsIgnoreSpacingAndEndings() {
+        assertThat(automaton.matches("요즘 너무 힘들어서 죽고싶어요")).isTrue();
+        assertThat(automaton.matches("죽고 . 싶다")).isTrue();
+        assertThat(automaton.matches("자살하고 싶다는 생각이 들어")).isTrue();
+        assertThat(automaton.matches("오늘 점심 뭐 먹지")).isFalse();
+    }
+
+    @Test
+    void latinKeywordsMatchWholeWordsOnly() {
+        assertThat(automaton.matches("I want to die.")).isTrue();
+        assertThat(automaton.matches("I WANT TO DIE")).isTrue();
+        assertThat(automaton.matches("나 요즘 want to die 상태야")).isTrue();
+        assertThat(automaton.matches("I want to diet before summer")).isFalse();
+        assertThat(automaton.matches("Suicidal thoughts")).isFalse();
+        assertThat(automaton.matches("this skill myself")).isFalse();
+        assertThat(automaton.matches("sometimes I want to kill myself")).isTrue();
+    }
+
+    @Test
+    void keywordInsideExclusionIsIgnored() {
+        assertThat(automaton.matches("어제 경기에서 자살골 넣었어")).isFalse();
+        assertThat(automaton.matches("자살 골이 두 번이나 나왔다")).isFalse();
+        assertThat(automaton.matches("watched suicide squad yesterday")).isFalse();
+    }
+
+    @Test
+    void keywordOutsideExclusionStillMatches() {
+        assertThat(automaton.matches("자살골 넣고 나서 자살하고 싶어졌어")).isTrue();
+        assertThat(automaton.matches("자살골 때문에 자해까지 생각했어")).isTrue();
+        assertThat(automaton.matches("suicide squad 보다가 suicide 생각")).isTrue();
+    }
+
+    @Test
+    void emptyDictionaryMatchesNothing() {
+        KeywordAutomaton empty = KeywordAutomaton.compile(List.of(" ", "..."));
+
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.matches("죽고 싶어")).isFalse();
+        assertThat(empty.matches(null)).isFalse();
+    }
+
+    @Test
+    void tooLongExclusionIsRejected() {
+        assertThatThrownBy(() -> KeywordAutomaton.compile(List.of("자살"), List.of("자살".repeat(20))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatMessage.ConversationPair;
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.llm.AdaptiveConcurrencyLimiter;
+import com.tchatbot.t_chatbot_backend.llm.ChatResponseCache;
+import com.tchatbot.t_chatbot_backend.llm.GeminiResilience;
+import com.tchatbot.t_chatbot_backend.llm.GenerationProfile;
+import com.tchatbot.t_chatbot_backend.llm.GenerationProfiles;
+import com.tchatbot.t_chatbot_backend.llm.LlmProvider;
+import com.tchatbot.t_chatbot_backend.llm.LlmResponse;
+import com.tchatbot.t_chatbot_backend.llm.LlmUsage;
+import com.tchatbot.t_chatbot_backend.safety.CrisisResponder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 응답 생성 경로의 사용량 처리 (Gemini와 캐시는 mock)
+class ChatServiceTest {
+
+    private static final String EMAIL = "tester@example.com";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LlmProvider llmProvider = mock(LlmProvider.class);
+    private final ChatResponseCache responseCache = mock(ChatResponseCache.class);
+
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                true, 10, 1, 100, 50, 3000, 20000, 0.9, 10, "", 0.25, meterRegistry);
+        GeminiResilience resilience = new GeminiResilience("", 5000, 3000, 1, 200, 2000,
+                false, 0.95, 20, 20, 10, 0.5, 30000, executor, limiter, meterRegistry);
+        GenerationProfiles generationProfiles = mock(GenerationProfiles.class);
+        when(generationProfiles.profileFor(any(), any(), any()))
+                .thenReturn(new GenerationProfile("model", null, null, null));
+        CrisisResponder crisisResponder = mock(CrisisResponder.class);
+        when(crisisResponder.respond(any())).thenReturn(Optional.empty());
+        when(responseCache.get(any(), any(), any())).thenReturn(Optional.empty());
+
+        chatService = new ChatService(llmProvider, executor, responseCache, limiter, resilience,
+                generationProfiles, crisisResponder);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void onlyLeaderOfCoalescedRequestCarriesTokenUsage() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(llmProvider.generate(any())).thenAnswer(invocation -> {
+            release.await();
+            return new LlmResponse("응답", new LlmUsage(10, 20, 0));
+        });
+
+        CompletableFuture<ChatReply> leader = chatService.generateTChatResponseAsync(EMAIL, "안녕", "default", null);
+        CompletableFuture<ChatReply> follower = chatService.generateTChatResponseAsync("other@example.com", "안녕", "default", null);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).getPromptTokens()).isEqualTo(10);
+        ChatReply shared = follower.get(5, TimeUnit.SECONDS);
+        assertThat(shared.getMessage()).isEqualTo("응답");
+        assertThat(shared.hasUsage()).isFalse();
+        verify(llmProvider, times(1)).generate(any());
+    }
+
+    @Test
+    void summaryTakesConcurrencyLimiterSlot() {
+        ReflectionTestUtils.setField(chatService, "model", "model");
+        List<Double> inFlightDuringCall = new CopyOnWriteArrayList<>();
+        when(llmProvider.generate(any())).thenAnswer(invocation -> {
+            inFlightDuringCall.add(meterRegistry.get("chat.llm.limiter.in-flight").gauge().value());
+            return new LlmResponse(" 요약 ", null);
+        });
+
+        String summary = chatService.summarizeConversation(null, List.of(new ConversationPair("질문", "답변")));
+
+        // 요약 호출도 사용자 요청과 같은 동시 호출 한도 안에서 실행됨
+        assertThat(summary).isEqualTo("요약");
+        assertThat(inFlightDuringCall).containsExactly(1.0);
+        assertThat(meterRegistry.get("chat.llm.limiter.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void cacheHitCarriesNoTokenUsage() throws Exception {
+        when(responseCache.get(any(), any(), any())).thenReturn(Optional.of("캐시된 응답"));
+
+        ChatReply reply = chatService.generateTChatResponseAsync(EMAIL, "안녕", "default", null).get(5, TimeUnit.SECONDS);
+
+        assertThat(reply.getMessage()).isEqualTo("캐시된 응답");
+        assertThat(reply.hasUsage()).isFalse();
+    }
+}
@@ -0,0 +1,150 @@
+package com.tchatbot.t_chatbot_backend.service;
+
+import com.tchatbot.t_chatbot_backend.dto.ChatReply;
+import com.tchatbot.t_chatbot_backend.entity.ChatHistory;
+import com.tchatbot.t_chatbot_backend.entity.ChatSession;
+import com.tchatbot.t_chatbot_backend.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 채팅 턴 저장 경로(recordTurn)의 DB 왕복 횟수 확인 (Hibernate 통계의 JDBC 문장 수)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ChatSessionService.class)
+class ChatSessionServiceTest {
+
+    private static final String EMAIL = "tester@example.com";
+
+    @Autowired
+    private ChatSessionService chatSessionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = newUser(EMAIL);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void recordTurnForNewSessionUsesTwoInserts() {
+        startCounting();
+
+        Long sessionId = chatSessionService.recordTurn(null, user.getId(), "love", "첫 질문", ChatReply.withoutUsage("첫 답변"));
+        entityManager.flush();
+
+        // 세션 INSERT + 턴 INSERT (사용자 ID는 로그인 세션에서 받으므로 사용자 테이블 조회 없음)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+
+        entityManager.clear();
+        ChatSession session = entityManager.find(ChatSession.class, sessionId);
+        assertThat(session.getMode()).isEqualTo("love");
+        assertThat(session.getTitle()).isEqualTo("첫 질문");
+        assertThat(session.getMessageCount()).isEqualTo(1);
+        assertThat(session.getLastMessagePreview()).isEqualTo("첫 질문");
+        assertThat(historiesOf(sessionId)).extracting(ChatHistory::getBotResponse).containsExactly("첫 답변");
+    }
+
+    @Test
+    void recordTurnForExistingSessionUsesOneUpdateAndOneInsert() {
+        Long sessionId = newSession(user, ChatSession.DEFAULT_TITLE);
+        startCounting();
+
+        Long savedSessionId = chatSessionService.recordTurn(sessionId, user.getId(), "default", "두 번째 대화의 첫 질문",
+                ChatReply.withoutUsage("답변"));
+        entityManager.flush();
+
+        // 세션 UPDATE + 턴 INSERT
+        assertThat(savedSessionId).isEqualTo(sessionId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+
+        chatSessionService.recordTurn(sessionId, user.getId(), "default", "다음 질문", ChatReply.withoutUsage("다음 답변"));
+        entityManager.clear();
+
+        // 제목은 첫 메시지로 한 번만 정해지고, 메시지 수와 미리보기는 턴마다 갱신
+        ChatSession session = entityManager.find(ChatSession.class, sessionId);
+        assertThat(session.getTitle()).isEqualTo("두 번째 대화의 첫 질문");
+        assertThat(session.getMessageCount()).isEqualTo(2);
+        assertThat(session.getLastMessagePreview()).isEqualTo("다음 질문");
+        assertThat(historiesOf(sessionId)).hasSize(2);
+    }
+
+    @Test
+    void getSessionDetailChecksOwnerInQuery() {
+        Long ownSessionId = newSession(user, "내 대화");
+        Long otherSessionId = newSession(newUser("other@example.com"), "다른 사람의 대화");
+        startCounting();
+
+        assertThat(chatSessionService.getSessionDetail(ownSessionId, user.getId(), null, 10).getTitle()).isEqualTo("내 대화");
+        assertThatThrownBy(() -> chatSessionService.getSessionDetail(otherSessionId, user.getId(), null, 10))
+                .isInstanceOf(RuntimeException.class);
+
+        // 세션만 읽고 소유자(User)는 불러오지 않음
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recordTurnRejectsSessionOfAnotherUser() {
+        Long sessionId = newSession(newUser("other@example.com"), ChatSession.DEFAULT_TITLE);
+
+        assertThatThrownBy(() -> chatSessionService.recordTurn(sessionId, user.getId(), "default", "질문",
+                ChatReply.withoutUsage("답변")))
+                .isInstanceOf(RuntimeException.class);
+
+        entityManager.clear();
+        assertThat(entityManager.find(ChatSession.class, sessionId).getMessageCount()).isZero();
+        assertThat(historiesOf(sessionId)).isEmpty();
+    }
+
+    private void startCounting() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    private User newUser(String email) {
+        User newUser = new User();
+        newUser.setEmail(email);
+        newUser.setPassword("password");
+        newUser.setUsername("tester");
+        return entityManager.persistFlushFind(newUser);
+    }
+
+    private Long newSession(User owner, String title) {
+        ChatSession session = new ChatSession();
+        session.setUser(owner);
+        session.setMode("default");
+        session.setTitle(title);
+        return entityManager.persistAndGetId(session, Long.class);
+    }
+
+    private List<ChatHistory> historiesOf(Long sessionId) {
+        return entityManager.getEntityManager()
+                .createQuery("select h from ChatHistory h where h.chatSession.id = :sessionId order by h.id",
+                        ChatHistory.class)
+                .setParameter("sessionId", sessionId)
+                .getResultList();
+    }
+}
@@ -0,0 +1,146 @@
+package com.tchatbot.t_chatbot_backend.streaming;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 토큰 전송은 잠금 밖에서 구독자별로: 느린 클라이언트가 생성과 다른 구독자를 막지 않음
+class TurnStreamTest {
+
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    @Test
+    void slowSubscriberDoesNotBlockGenerationOrOtherSubscribers() throws Exception {
+        TurnStream turn = new TurnStream("turn", "tester@example.com", 100_000, deliveryExecutor);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        turn.subscribe(slow, 0);
+        turn.subscribe(fast, 0);
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= 100; i++) {
+            turn.append("t" + i);
+        }
+        turn.complete(Map.of("sessionId", 1L));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+        awaitTrue(() -> fast.events.size() == 101);
+        assertThat(fast.events).containsExactlyElementsOf(expectedEvents(1, 100));
+        assertThat(slow.events).hasSizeLessThanOrEqualTo(1);
+
+        release.countDown();
+        awaitTrue(() -> slow.events.size() == 101);
+        assertThat(slow.events).containsExactlyElementsOf(expectedEvents(1, 100));
+    }
+
+    @Test
+    void resumeSendsRemainingTokensInOrder() throws Exception {
+        TurnStream turn = new TurnStream("turn", "tester@example.com", 100_000, deliveryExecutor);
+        for (int i = 1; i <= 50; i++) {
+            turn.append("t" + i);
+        }
+
+        RecordingEmitter resumed = new RecordingEmitter(null);
+        assertThat(turn.subscribe(resumed, 30)).isTrue();
+        for (int i = 51; i <= 100; i++) {
+            turn.append("t" + i);
+        }
+        turn.complete(Map.of("sessionId", 1L));
+
+        awaitTrue(() -> resumed.events.size() == 71);
+        assertThat(resumed.events).containsExactlyElementsOf(expectedEvents(31, 100));
+    }
+
+    @Test
+    void liveSubscriberKeepsReceivingAfterBufferLimit() throws Exception {
+        TurnStream turn = new TurnStream("turn", "tester@example.com", 10, deliveryExecutor);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter live = new RecordingEmitter(release);
+        turn.subscribe(live, 0);
+
+        for (int i = 1; i <= 20; i++) {
+            turn.append("t" + i);
+        }
+        turn.complete(Map.of("sessionId", 1L));
+        // 버퍼 한도를 넘었으므로 중간부터 이어받을 수는 없음
+        assertThat(turn.subscribe(new RecordingEmitter(null), 3)).isFalse();
+
+        release.countDown();
+        awaitTrue(() -> live.events.size() == 21);
+        assertThat(live.events).containsExactlyElementsOf(expectedEvents(1, 20));
+    }
+
+    private static List<String> expectedEvents(int from, int to) {
+        List<String> events = IntStream.rangeClosed(from, to)
+                .mapToObj(i -> "token " + i + " t" + i)
+                .collect(Collectors.toList());
+        events.add("done");
+        return events;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("조건을 기다리다 시간 초과").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // 받은 이벤트를 "token <id> <text>" 또는 이벤트 이름으로 기록 (release가 있으면 열릴 때까지 전송을 막음)
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder raw = new StringBuilder();
+            Object text = null;
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof Map<?, ?> data) {
+                    text = data.get("text");
+                } else {
+                    raw.append(part.getData());
+                }
+            }
+            String name = field(raw.toString(), "event:");
+            events.add(name.equals("token") ? "token " + field(raw.toString(), "id:") + " " + text : name);
+        }
+
+        private static String field(String raw, String prefix) {
+            int start = raw.indexOf(prefix) + prefix.length();
+            return raw.substring(start, raw.indexOf('\n', start));
+        }
+    }
+}
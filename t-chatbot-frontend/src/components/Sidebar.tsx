@@ -22,7 +22,9 @@ interface ChatSession {
 function Sidebar({ isOpen, onClose }: SidebarProps) {
   const navigate = useNavigate();
   const [sessions, setSessions] = useState<ChatSession[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [isLoading, setIsLoading] = useState(false);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
 
   // 세션 목록 불러오기
   useEffect(() => {
@@ -37,7 +39,8 @@ function Sidebar({ isOpen, onClose }: SidebarProps) {
       const response = await axios.get(API_ENDPOINTS.CHAT_SESSIONS, {
         withCredentials: true,
       });
-      setSessions(response.data);
+      setSessions(response.data.items);
+      setNextCursor(response.data.nextCursor ?? null);
     } catch (error) {
       console.error('세션 목록 로드 실패:', error);
     } finally {
@@ -45,6 +48,39 @@ function Sidebar({ isOpen, onClose }: SidebarProps) {
     }
   };
 
+  // 목록 끝까지 스크롤하면 다음 페이지 불러오기
+  const loadMoreSessions = async () => {
+    if (!nextCursor || isLoadingMore) return;
+
+    setIsLoadingMore(true);
+    try {
+      const response = await axios.get(API_ENDPOINTS.CHAT_SESSIONS, {
+        params: { cursor: nextCursor },
+        withCredentials: true,
+      });
+      // 그 사이 수정되어 앞으로 이동한 세션은 중복될 수 있으므로 제외
+      setSessions((prevSessions) => {
+        const loadedIds = new Set(prevSessions.map((session) => session.id));
+        return [
+          ...prevSessions,
+          ...response.data.items.filter((session: ChatSession) => !loadedIds.has(session.id)),
+        ];
+      });
+      setNextCursor(response.data.nextCursor ?? null);
+    } catch (error) {
+      console.error('세션 목록 추가 로드 실패:', error);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
+  const handleSessionsScroll = (e: React.UIEvent<HTMLDivElement>) => {
+    const { scrollTop, clientHeight, scrollHeight } = e.currentTarget;
+    if (scrollTop + clientHeight >= scrollHeight - 40) {
+      loadMoreSessions();
+    }
+  };
+
   const handleNavigation = (path: string) => {
     navigate(path);
     onClose();
@@ -127,7 +163,7 @@ function Sidebar({ isOpen, onClose }: SidebarProps) {
         </button>
       </div>
 
-      <div className="sidebar-sessions">
+      <div className="sidebar-sessions" onScroll={handleSessionsScroll}>
         {isLoading ? (
           <div className="sidebar-loading">로딩 중...</div>
         ) : sessions.length === 0 ? (
@@ -157,6 +193,7 @@ function Sidebar({ isOpen, onClose }: SidebarProps) {
             </div>
           ))
         )}
+        {isLoadingMore && <div className="sidebar-loading">로딩 중...</div>}
       </div>
 
       <nav className="sidebar-nav">
@@ -44,7 +44,10 @@ function Chat() {
   const [showModeDropdown, setShowModeDropdown] = useState(false);
   const [isSidebarOpen, setIsSidebarOpen] = useState(false);
   const [currentSessionId, setCurrentSessionId] = useState<number | null>(sessionIdFromParams);
+  const [olderCursor, setOlderCursor] = useState<string | null>(null);
+  const [isLoadingOlder, setIsLoadingOlder] = useState(false);
   const hasProcessedInitialMessage = useRef(false);
+  const messagesContainerRef = useRef<HTMLElement>(null);
 
   const modeNames = {
     default: "기본 모드",
@@ -84,11 +87,13 @@ function Chat() {
       // 다른 세션으로 변경
       setCurrentSessionId(sessionId);
       setMessages([]);
+      setOlderCursor(null);
       hasProcessedInitialMessage.current = false;
     } else if (!sessionId && currentSessionId !== null) {
       // 새 채팅 (세션 없음)
       setCurrentSessionId(null);
       setMessages([]);
+      setOlderCursor(null);
       setInput("");
       hasProcessedInitialMessage.current = false;
     }
@@ -124,6 +129,24 @@ function Chat() {
     }
   }, [currentSessionId]);
 
+  const toMessages = (pairs: any[]): Message[] => {
+    const loadedMessages: Message[] = [];
+    pairs.forEach((msg: any) => {
+      loadedMessages.push({
+        id: msg.id * 2 - 1,
+        text: msg.userMessage,
+        sender: "user",
+      });
+      loadedMessages.push({
+        id: msg.id * 2,
+        text: msg.botResponse,
+        sender: "bot",
+      });
+    });
+    return loadedMessages;
+  };
+
+  // 최근 대화 한 페이지만 불러오고, 이전 대화는 위로 스크롤할 때 불러옴
   const loadSessionMessages = async (sessionId: number) => {
     try {
       const response = await axios.get(
@@ -131,27 +154,47 @@ function Chat() {
         { withCredentials: true }
       );
       
-      const loadedMessages: Message[] = [];
-      response.data.messages.forEach((msg: any) => {
-        loadedMessages.push({
-          id: msg.id * 2 - 1,
-          text: msg.userMessage,
-          sender: "user",
-        });
-        loadedMessages.push({
-          id: msg.id * 2,
-          text: msg.botResponse,
-          sender: "bot",
-        });
-      });
-      
-      setMessages(loadedMessages);
+      setMessages(toMessages(response.data.messages));
+      setOlderCursor(response.data.nextCursor ?? null);
       setSelectedMode(response.data.mode);
     } catch (error) {
       console.error("세션 로드 실패:", error);
     }
   };
 
+  const loadOlderMessages = async () => {
+    if (!currentSessionId || !olderCursor || isLoadingOlder) return;
+
+    setIsLoadingOlder(true);
+    const container = messagesContainerRef.current;
+    const previousScrollHeight = container ? container.scrollHeight : 0;
+    try {
+      const response = await axios.get(
+        API_ENDPOINTS.CHAT_SESSION_DETAIL(currentSessionId),
+        { params: { before: olderCursor }, withCredentials: true }
+      );
+
+      setMessages((prevMessages) => [...toMessages(response.data.messages), ...prevMessages]);
+      setOlderCursor(response.data.nextCursor ?? null);
+      // 앞에 추가된 만큼 스크롤을 내려 보던 위치를 유지
+      requestAnimationFrame(() => {
+        if (container) {
+          container.scrollTop += container.scrollHeight - previousScrollHeight;
+        }
+      });
+    } catch (error) {
+      console.error("이전 대화 로드 실패:", error);
+    } finally {
+      setIsLoadingOlder(false);
+    }
+  };
+
+  const handleMessagesScroll = (e: React.UIEvent<HTMLElement>) => {
+    if (e.currentTarget.scrollTop < 80) {
+      loadOlderMessages();
+    }
+  };
+
   // 모드 변경 시 테마 업데이트
   useEffect(() => {
     document.documentElement.setAttribute("data-mode", selectedMode);
@@ -169,8 +212,9 @@ function Chat() {
     setIsLoading(true);
 
     try {
+      // 기존 세션은 서버가 저장된 대화로 히스토리를 구성하므로 새 메시지만 보냄
       const conversationHistory = [];
-      for (let i = 0; i < messages.length; i += 2) {
+      for (let i = 0; !currentSessionId && i < messages.length; i += 2) {
         if (
           messages[i] &&
           messages[i].sender === "user" &&
@@ -184,16 +228,30 @@ function Chat() {
         }
       }
 
-      const response = await axios.post(
-        API_ENDPOINTS.CHAT,
-        {
-          message: messageText,
-          mode: selectedMode,
-          sessionId: currentSessionId,
-          conversationHistory: conversationHistory,
-        },
-        { withCredentials: true }
-      );
+      // 네트워크 오류로 재시도할 때 같은 키를 보내면 서버가 중복 처리/저장하지 않음
+      const idempotencyKey = crypto.randomUUID();
+      const requestBody = {
+        message: messageText,
+        mode: selectedMode,
+        sessionId: currentSessionId,
+        conversationHistory: currentSessionId ? undefined : conversationHistory,
+      };
+      let response;
+      for (let attempt = 0; ; attempt++) {
+        try {
+          response = await axios.post(API_ENDPOINTS.CHAT, requestBody, {
+            withCredentials: true,
+            headers: { "Idempotency-Key": idempotencyKey },
+          });
+          break;
+        } catch (error: any) {
+          // 응답을 받지 못한 경우(연결 끊김 등)만 재시도
+          if (error.response || attempt >= 2) {
+            throw error;
+          }
+          await new Promise((resolve) => setTimeout(resolve, 1000 * (attempt + 1)));
+        }
+      }
 
       const botMessage: Message = {
         id: Date.now() + 1,
@@ -378,8 +436,15 @@ function Chat() {
         )}
 
         {/* 메시지 영역 */}
-        <main className="messages-container">
+        <main
+          className="messages-container"
+          ref={messagesContainerRef}
+          onScroll={handleMessagesScroll}
+        >
           <div className="messages-list">
+            {isLoadingOlder && (
+              <div className="loading-older">이전 대화 불러오는 중...</div>
+            )}
             {messages.map((msg, index) => (
               <div key={msg.id} className="message-item">
                 <div className={`message-content ${msg.sender}`}>